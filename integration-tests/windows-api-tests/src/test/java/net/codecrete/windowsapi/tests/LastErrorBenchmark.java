@@ -0,0 +1,71 @@
+//
+// Windows API Generator for Java
+// Copyright (c) 2025 Manuel Bleichenbacher
+// Licensed under MIT License
+// https://opensource.org/licenses/MIT
+//
+package net.codecrete.windowsapi.tests;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.Linker;
+import java.util.function.LongSupplier;
+
+import static java.nio.charset.StandardCharsets.UTF_16LE;
+import static windows.win32.system.libraryloader.Apis.GetModuleHandleW;
+
+/**
+ * Compares the variants of capturing the call state ({@code GetLastError()}).
+ * <p>
+ * The variants are:
+ * </p>
+ * <ul>
+ *     <li>a call state segment allocated for each call (confined arena),</li>
+ *     <li>a call state segment allocated once and passed explicitly,</li>
+ *     <li>the overload without call state parameter (thread-local call state).</li>
+ * </ul>
+ * <p>
+ * Each variant is run several times after a warm-up phase. The average time per call is reported.
+ * </p>
+ */
+public class LastErrorBenchmark {
+
+    private static final int NUM_CALLS = 2_000_000;
+    private static final int NUM_ROUNDS = 5;
+
+    public static void main(String[] args) {
+        try (var arena = Arena.ofConfined()) {
+            var moduleName = arena.allocateFrom("KERNEL32.DLL", UTF_16LE);
+            var errorState = arena.allocate(Linker.Option.captureStateLayout());
+
+            run("allocated per call", () -> {
+                try (var callArena = Arena.ofConfined()) {
+                    return GetModuleHandleW(callArena.allocate(Linker.Option.captureStateLayout()), moduleName)
+                            .address();
+                }
+            });
+            run("explicit segment", () -> GetModuleHandleW(errorState, moduleName).address());
+            run("thread-local", () -> GetModuleHandleW(moduleName).address());
+        }
+    }
+
+    private static void run(String variant, LongSupplier call) {
+        // warm-up
+        measure(call);
+
+        var best = Long.MAX_VALUE;
+        for (int i = 0; i < NUM_ROUNDS; i += 1)
+            best = Math.min(best, measure(call));
+        System.out.printf("%-20s %6.1f ns/call%n", variant, (double) best / NUM_CALLS);
+    }
+
+    private static long measure(LongSupplier call) {
+        var checksum = 0L;
+        var start = System.nanoTime();
+        for (int i = 0; i < NUM_CALLS; i += 1)
+            checksum += call.getAsLong();
+        var duration = System.nanoTime() - start;
+        if (checksum == 42)
+            System.out.println("unlikely");
+        return duration;
+    }
+}
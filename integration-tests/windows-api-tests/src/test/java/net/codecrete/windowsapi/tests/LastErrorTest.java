@@ -0,0 +1,38 @@
+//
+// Windows API Generator for Java
+// Copyright (c) 2025 Manuel Bleichenbacher
+// Licensed under MIT License
+// https://opensource.org/licenses/MIT
+//
+package net.codecrete.windowsapi.tests;
+
+import org.junit.jupiter.api.Test;
+import windows.win32.system.libraryloader.Apis;
+
+import static java.nio.charset.StandardCharsets.UTF_16LE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static windows.win32.foundation.WIN32_ERROR.ERROR_MOD_NOT_FOUND;
+import static windows.win32.system.libraryloader.Apis.GetModuleHandleW;
+
+class LastErrorTest extends TestBase {
+
+    @Test
+    void functionWithoutCallState_capturesLastError() {
+        var moduleName = arena.allocateFrom("NON_EXISTING_MODULE.DLL", UTF_16LE);
+
+        var moduleHandle = GetModuleHandleW(moduleName);
+
+        assertThat(moduleHandle.address()).isZero();
+        assertThat(Apis.lastError()).isEqualTo(ERROR_MOD_NOT_FOUND);
+    }
+
+    @Test
+    void functionWithCallState_capturesLastError() {
+        var moduleName = arena.allocateFrom("NON_EXISTING_MODULE.DLL", UTF_16LE);
+
+        var moduleHandle = GetModuleHandleW(errorState, moduleName);
+
+        assertThat(moduleHandle.address()).isZero();
+        assertThat(Windows.getLastError(errorState)).isEqualTo(ERROR_MOD_NOT_FOUND);
+    }
+}
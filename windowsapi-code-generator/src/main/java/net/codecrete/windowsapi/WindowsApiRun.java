@@ -8,21 +8,32 @@ package net.codecrete.windowsapi;
 
 import net.codecrete.windowsapi.events.Event;
 import net.codecrete.windowsapi.events.EventListener;
+import net.codecrete.windowsapi.metadata.Metadata;
 import net.codecrete.windowsapi.winmd.MetadataBuilder;
+import net.codecrete.windowsapi.writer.BindingsJar;
 import net.codecrete.windowsapi.writer.CodeWriter;
+import net.codecrete.windowsapi.writer.FileSystemSink;
 import net.codecrete.windowsapi.writer.GenerationException;
+import net.codecrete.windowsapi.writer.GenerationManifest;
+import net.codecrete.windowsapi.writer.InMemorySink;
+import net.codecrete.windowsapi.writer.OutputSink;
 import net.codecrete.windowsapi.writer.Scope;
+import net.codecrete.windowsapi.writer.ShardingStrategy;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.FileVisitResult;
 import java.nio.file.FileVisitor;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayDeque;
 import java.util.Deque;
 import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.Set;
 
 /**
@@ -41,7 +52,13 @@ import java.util.Set;
  */
 public class WindowsApiRun {
     private Path outputDirectory;
+    private OutputSink outputSink;
+    private Metadata metadata;
     private String basePackage = "";
+    private int parallelism = 1;
+    private ShardingStrategy shardingStrategy = ShardingStrategy.NONE;
+    private int shardThreshold = ShardingStrategy.DEFAULT_THRESHOLD;
+    private boolean handlesAsLong = false;
     private EventListener eventListener = new NullEventListener();
 
     private Set<String> structs = new HashSet<>();
@@ -50,6 +67,7 @@ public class WindowsApiRun {
     private Set<String> callbackFunctions = new HashSet<>();
     private Set<String> comInterfaces = new HashSet<>();
     private Set<String> constants = new HashSet<>();
+    private Set<String> criticalFunctions = new HashSet<>();
 
     /**
      * Creates a new instance.
@@ -82,6 +100,158 @@ public class WindowsApiRun {
         this.outputDirectory = outputDirectory;
     }
 
+    /**
+     * Gets the strategy for splitting large {@code Apis} and {@code Constants} classes.
+     *
+     * @return the sharding strategy
+     */
+    public ShardingStrategy getShardingStrategy() {
+        return shardingStrategy;
+    }
+
+    /**
+     * Sets the strategy for splitting large {@code Apis} and {@code Constants} classes.
+     * <p>
+     * If a namespace has more functions or non-numeric constants than the shard threshold,
+     * the implementation is split into several classes. The {@code Apis} and {@code Constants}
+     * classes remain as facades with the same public methods.
+     * The default is {@link ShardingStrategy#NONE}.
+     * </p>
+     *
+     * @param shardingStrategy the sharding strategy
+     */
+    public void setShardingStrategy(ShardingStrategy shardingStrategy) {
+        this.shardingStrategy = shardingStrategy;
+    }
+
+    /**
+     * Gets the number of functions or constants above which a class is split.
+     *
+     * @return the shard threshold
+     */
+    public int getShardThreshold() {
+        return shardThreshold;
+    }
+
+    /**
+     * Sets the number of functions or constants above which a class is split.
+     * <p>
+     * For {@link ShardingStrategy#BY_SIZE}, it is also the maximum number of members per shard.
+     * The default is {@link ShardingStrategy#DEFAULT_THRESHOLD}.
+     * </p>
+     *
+     * @param shardThreshold the shard threshold
+     */
+    public void setShardThreshold(int shardThreshold) {
+        this.shardThreshold = shardThreshold;
+    }
+
+    /**
+     * Gets the names of the functions to link as critical functions.
+     *
+     * @return the function names or patterns
+     */
+    public Set<String> getCriticalFunctions() {
+        return criticalFunctions;
+    }
+
+    /**
+     * Sets the names of the functions to link as critical functions.
+     * <p>
+     * Critical functions are linked with {@code Linker.Option.critical(true)}, avoiding the
+     * thread state transition. It is only suitable for short, non-blocking functions that
+     * do not call back into Java, e.g., {@code GetTickCount64} or {@code QueryPerformanceCounter}.
+     * For critical functions with pointers to primitive types, overloads taking Java arrays are
+     * generated in addition.
+     * </p>
+     * <p>
+     * The names may contain the wildcard {@code *} (e.g., {@code Interlocked*}). The functions must
+     * still be specified with {@link #setFunctions(Set)} to be generated.
+     * </p>
+     *
+     * @param criticalFunctions the function names or patterns
+     */
+    public void setCriticalFunctions(Set<String> criticalFunctions) {
+        this.criticalFunctions = criticalFunctions;
+    }
+
+    /**
+     * Indicates if handles are represented as a Java {@code long}.
+     *
+     * @return {@code true} for {@code long}, {@code false} for {@code MemorySegment}
+     */
+    public boolean isHandlesAsLong() {
+        return handlesAsLong;
+    }
+
+    /**
+     * Sets if handles are represented as a Java {@code long} instead of a {@code MemorySegment}.
+     * <p>
+     * Handles are type aliases for pointers marked as handles, e.g., {@code HWND}, {@code HANDLE},
+     * {@code HKEY} or {@code HDC}. If set, they are represented as {@code long} in function signatures,
+     * struct accessors, callback functions and constants, avoiding a memory segment allocation per handle.
+     * The default is {@code false}.
+     * </p>
+     *
+     * @param handlesAsLong {@code true} for {@code long}, {@code false} for {@code MemorySegment}
+     */
+    public void setHandlesAsLong(boolean handlesAsLong) {
+        this.handlesAsLong = handlesAsLong;
+    }
+
+    /**
+     * Gets the output sink for the generated source code.
+     *
+     * @return the output sink, or {@code null} if the code is written to the output directory
+     */
+    public OutputSink getOutputSink() {
+        return outputSink;
+    }
+
+    /**
+     * Sets the output sink for the generated source code.
+     * <p>
+     * If an output sink is set, the generated files are passed to the sink instead of being written
+     * to the output directory. No manifest is written and no stale files are deleted. The sink
+     * is not closed; this is the responsibility of the caller.
+     * </p>
+     * <p>
+     * The default is {@code null}, i.e., the files are written to the output directory.
+     * </p>
+     *
+     * @param outputSink the output sink, or {@code null}
+     */
+    public void setOutputSink(OutputSink outputSink) {
+        this.outputSink = outputSink;
+    }
+
+    /**
+     * Gets the preloaded metadata.
+     *
+     * @return the metadata, or {@code null} if the metadata is loaded by this run
+     */
+    public Metadata getMetadata() {
+        return metadata;
+    }
+
+    /**
+     * Sets preloaded metadata.
+     * <p>
+     * If the metadata is set, the run uses it instead of loading the metadata itself.
+     * This allows sharing the metadata between several runs, e.g., in a build server
+     * or daemon. The metadata should have been loaded with {@link MetadataBuilder#load()}
+     * as fully loaded metadata can be used by several runs concurrently.
+     * </p>
+     * <p>
+     * The default is {@code null}, i.e., each run loads the metadata.
+     * </p>
+     *
+     * @param metadata the metadata, or {@code null}
+     */
+    public void setMetadata(Metadata metadata) {
+        this.metadata = metadata;
+    }
+
     /**
      * Gets the base package for the generated code.
      * <p>
@@ -113,6 +283,29 @@ public class WindowsApiRun {
         this.basePackage = basePackage;
     }
 
+    /**
+     * Gets the number of threads used to generate the Java files.
+     *
+     * @return the number of threads (1 for sequential generation, 0 for virtual threads)
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Sets the number of threads used to generate the Java files.
+     * <p>
+     * The default is 1, i.e., the files are generated sequentially. A value of 0
+     * generates each file on a virtual thread. If the files are generated in parallel,
+     * events of different files can be interleaved.
+     * </p>
+     *
+     * @param parallelism the number of threads (1 for sequential generation, 0 for virtual threads)
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
     /**
      * Gets the names of the C struct and union types to generate.
      *
@@ -256,6 +449,26 @@ public class WindowsApiRun {
         generate(false);
     }
 
+    /**
+     * Checks if the generated code in the output directory is up-to-date.
+     * <p>
+     * The code is up-to-date if the manifest in the output directory has been written for
+     * the same configuration (see {@link #getConfigurationHash()}) and all files listed in the
+     * manifest still exist with the recorded content hash. The check does not load the metadata.
+     * </p>
+     * <p>
+     * The result is meaningless if an output sink has been set.
+     * </p>
+     *
+     * @return {@code true} if the code is up-to-date, {@code false} if it needs to be generated
+     */
+    public boolean isUpToDate() {
+        var manifest = GenerationManifest.read(outputDirectory);
+        if (manifest == null || !getConfigurationHash().equals(manifest.getConfigurationHash()))
+            return false;
+        return manifest.paths().stream().allMatch(path -> manifest.isUnchanged(outputDirectory, path));
+    }
+
     /**
      * Executes a dry run.
      * <p>
@@ -270,8 +483,111 @@ public class WindowsApiRun {
         if (!isAnyWork())
             return;
 
-        var metadata = MetadataBuilder.load();
+        var metadata = loadMetadata();
+        var scope = buildScope(metadata);
+
+        var sink = outputSink != null ? outputSink : new FileSystemSink(outputDirectory);
+        var writer = createCodeWriter(metadata, sink);
+        writer.setDryRun(isDryRun);
+        writer.write(scope);
+
+        var generatedFiles = writer.getGeneratedFiles();
+        if (generatedFiles != null && outputSink == null) {
+            var previousManifest = GenerationManifest.read(outputDirectory);
+            if (previousManifest != null)
+                deleteStaleFiles(previousManifest, generatedFiles);
+            else
+                deleteOldFiles(generatedFiles);
+            var manifest = writer.getManifest();
+            manifest.setConfigurationHash(getConfigurationHash());
+            manifest.write(outputDirectory);
+        }
+    }
+
+    /**
+     * Generates the code and compiles it into a JAR file.
+     * <p>
+     * The source code is generated and compiled in memory, using the Java compiler of the running JDK.
+     * The output directory and output sink are not used.
+     * </p>
+     * <p>
+     * The JAR manifest contains the hash of this configuration (see {@link #getConfigurationHash()}).
+     * If the JAR file (and the sources JAR file) already exist with the same hash, they are not regenerated.
+     * </p>
+     *
+     * @param jarFile        the path of the JAR file with the compiled classes
+     * @param sourcesJarFile the path of the JAR file with the sources, or {@code null} if not needed
+     */
+    public void generateJar(Path jarFile, Path sourcesJarFile) {
+        if (!isAnyWork())
+            return;
+
+        var configurationHash = getConfigurationHash();
+        if (configurationHash.equals(BindingsJar.readConfigurationHash(jarFile))
+                && (sourcesJarFile == null
+                || configurationHash.equals(BindingsJar.readConfigurationHash(sourcesJarFile))))
+            return;
+
+        var metadata = loadMetadata();
+        var scope = buildScope(metadata);
+
+        var sink = new InMemorySink();
+        createCodeWriter(metadata, sink).write(scope);
+        var sources = sink.getFiles();
+
+        BindingsJar.writeJar(jarFile, BindingsJar.compile(sources), configurationHash);
+        if (sourcesJarFile != null)
+            BindingsJar.writeSourcesJar(sourcesJarFile, sources, configurationHash);
+    }
+
+    /**
+     * Gets a hash of this configuration.
+     * <p>
+     * The hash covers the generator version, the identity of the .winmd file, the base package,
+     * the sharding strategy and threshold, the handles-as-long option, the Java release targeted
+     * by compiled JAR files ({@link BindingsJar#RELEASE}) and the names of the structs, functions,
+     * enumerations, callback functions, COM interfaces, constants and critical functions.
+     * </p>
+     *
+     * @return the SHA-256 hash (as hex string)
+     */
+    public String getConfigurationHash() {
+        var configuration = new StringBuilder();
+        configuration.append("version:").append(WindowsApiRun.class.getPackage().getImplementationVersion())
+                .append('\n');
+        configuration.append("winmd:").append(MetadataBuilder.getWinmdIdentity()).append('\n');
+        configuration.append("basePackage:").append(basePackage).append('\n');
+        configuration.append("sharding:").append(shardingStrategy).append(' ').append(shardThreshold).append('\n');
+        configuration.append("handlesAsLong:").append(handlesAsLong).append('\n');
+        configuration.append("release:").append(BindingsJar.RELEASE).append('\n');
+        appendNames(configuration, "structs", structs);
+        appendNames(configuration, "functions", functions);
+        appendNames(configuration, "enumerations", enumerations);
+        appendNames(configuration, "callbackFunctions", callbackFunctions);
+        appendNames(configuration, "comInterfaces", comInterfaces);
+        appendNames(configuration, "constants", constants);
+        appendNames(configuration, "criticalFunctions", criticalFunctions);
+
+        try {
+            var digest = MessageDigest.getInstance("SHA-256")
+                    .digest(configuration.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private static void appendNames(StringBuilder configuration, String label, Set<String> names) {
+        configuration.append(label).append(':');
+        names.stream().sorted().forEach(name -> configuration.append(' ').append(name));
+        configuration.append('\n');
+    }
+
+    private Metadata loadMetadata() {
+        return metadata != null ? metadata : MetadataBuilder.load();
+    }
 
+    private Scope buildScope(Metadata metadata) {
         var scope = new Scope(metadata, eventListener);
         scope.addStructs(structs);
         scope.addEnums(enumerations);
@@ -284,15 +600,17 @@ public class WindowsApiRun {
             throw new WindowsApiException("Invalid arguments specified for Windows API code generation");
 
         scope.buildTransitiveScope();
+        return scope;
+    }
 
-        var writer = new CodeWriter(metadata, outputDirectory, eventListener);
-        writer.setDryRun(isDryRun);
+    private CodeWriter createCodeWriter(Metadata metadata, OutputSink sink) {
+        var writer = new CodeWriter(metadata, sink, eventListener);
         writer.setBasePackage(basePackage);
-        writer.write(scope);
-
-        var generatedFiles = writer.getGeneratedFiles();
-        if (generatedFiles != null)
-            deleteOldFiles(generatedFiles);
+        writer.setParallelism(parallelism);
+        writer.setSharding(shardingStrategy, shardThreshold);
+        writer.setCriticalFunctions(criticalFunctions);
+        writer.setHandlesAsLong(handlesAsLong);
+        return writer;
     }
 
     private boolean isAnyWork() {
@@ -317,7 +635,52 @@ public class WindowsApiRun {
     }
 
     /**
-     * Deletes all files in the output directory except the specified ones.
+     * Deletes the files of the previous run that have not been generated again.
+     * <p>
+     * Instead of walking the entire output directory, the files are determined from
+     * the manifest of the previous run. Directories that become empty are deleted as well.
+     * Files and directories outside the output directory are never deleted.
+     * </p>
+     *
+     * @param previousManifest the manifest of the previous run
+     * @param generatedFiles   set of paths (relative to output directory)
+     */
+    void deleteStaleFiles(GenerationManifest previousManifest, Set<Path> generatedFiles) {
+        var outputRoot = outputDirectory.normalize();
+        try {
+            for (var path : previousManifest.paths()) {
+                if (generatedFiles.contains(path))
+                    continue;
+
+                var file = outputDirectory.resolve(path);
+                if (!file.normalize().startsWith(outputRoot) || file.normalize().equals(outputRoot))
+                    continue;
+                if (!Files.deleteIfExists(file))
+                    continue;
+                eventListener.onEvent(new Event.FileDeleted(file));
+
+                var directory = file.getParent();
+                while (directory != null && directory.normalize().startsWith(outputRoot)
+                        && !directory.normalize().equals(outputRoot) && isEmptyDirectory(directory)) {
+                    Files.delete(directory);
+                    eventListener.onEvent(new Event.DirectoryDeleted(directory));
+                    directory = directory.getParent();
+                }
+            }
+
+        } catch (IOException exc) {
+            throw new UncheckedIOException("Unable to clean output directory " + outputDirectory, exc);
+        }
+    }
+
+    private static boolean isEmptyDirectory(Path directory) throws IOException {
+        try (var entries = Files.list(directory)) {
+            return entries.findAny().isEmpty();
+        }
+    }
+
+    /**
+     * Deletes all files in the output directory except the specified ones (and the manifest).
      * <p>
      * Empty directories are also deleted.
      * </p>
@@ -341,7 +704,7 @@ public class WindowsApiRun {
                 @Override
                 public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
                     var relative = outputDirectory.relativize(file);
-                    if (generatedFiles.contains(relative)) {
+                    if (generatedFiles.contains(relative) || relative.toString().equals(GenerationManifest.FILE_NAME)) {
                         isEmptyDirectory = false;
                     } else {
                         Files.delete(file);
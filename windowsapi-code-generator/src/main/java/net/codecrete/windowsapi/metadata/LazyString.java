@@ -6,6 +6,8 @@
 //
 package net.codecrete.windowsapi.metadata;
 
+import java.nio.ByteBuffer;
+
 import static java.nio.charset.StandardCharsets.UTF_8;
 
 /**
@@ -16,8 +18,10 @@ import static java.nio.charset.StandardCharsets.UTF_8;
  * @param length length of the string (in number of UTF-8 code points, i.e., in bytes)
  */
 @SuppressWarnings("java:S6218")
-public record LazyString(byte[] blob, int offset, int length) {
+public record LazyString(ByteBuffer blob, int offset, int length) {
     public String toString() {
-        return new String(blob, offset, length, UTF_8);
+        var codeUnits = new byte[length];
+        blob.get(offset, codeUnits);
+        return new String(codeUnits, UTF_8);
     }
 }
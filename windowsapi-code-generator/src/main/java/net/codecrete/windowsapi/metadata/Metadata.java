@@ -11,7 +11,9 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
@@ -27,16 +29,39 @@ import static java.util.stream.Collectors.toMap;
 public class Metadata {
     private final Map<String, Namespace> namespaces = new HashMap<>();
     private final Namespace unnamedNamespace = new Namespace(null);
-    private final Map<Integer, Type> typesByDefinitionIndex = new HashMap<>();
-    private final Map<Integer, Method> methodsByMethodDefIndex = new HashMap<>();
+    private final RowMap<Type> typesByDefinitionIndex;
+    private final RowMap<Method> methodsByMethodDefIndex;
     private final Map<PrimitiveKind, Primitive> primitivesByKind = buildPrimitiveTypes(unnamedNamespace);
-    private final Map<Type, Pointer> pointersByType = new HashMap<>();
-    private final Map<Integer, TypeAlias> aliasesByTypeDefIndex = new HashMap<>();
+    private final Map<Type, Pointer> pointersByType = new ConcurrentHashMap<>();
+    private final RowMap<TypeAlias> aliasesByTypeDefIndex;
+    private final Map<String, List<Type>> typesByNativeName = new HashMap<>();
+    private final Map<String, EnumType> enumsByName = new HashMap<>();
+    private final Map<String, List<Method>> methodsByNativeName = new HashMap<>();
+    private final Map<String, List<ConstantValue>> constantsByName = new HashMap<>();
+    private volatile Map<String, List<EnumType>> enumsByMemberName;
 
     /**
      * Creates a new instance.
      */
     public Metadata() {
+        this(new RowMap<>(), new RowMap<>(), new RowMap<>());
+    }
+
+    /**
+     * Creates a new instance with storage sized for the given number of {@code TypeDef} and {@code MethodDef} rows.
+     *
+     * @param typeDefCount   the number of rows in the {@code TypeDef} table
+     * @param methodDefCount the number of rows in the {@code MethodDef} table
+     */
+    public Metadata(int typeDefCount, int methodDefCount) {
+        this(new RowMap<>(typeDefCount), new RowMap<>(methodDefCount), new RowMap<>(typeDefCount));
+    }
+
+    private Metadata(RowMap<Type> typesByDefinitionIndex, RowMap<Method> methodsByMethodDefIndex,
+                     RowMap<TypeAlias> aliasesByTypeDefIndex) {
+        this.typesByDefinitionIndex = typesByDefinitionIndex;
+        this.methodsByMethodDefIndex = methodsByMethodDefIndex;
+        this.aliasesByTypeDefIndex = aliasesByTypeDefIndex;
         addSystemGuid();
     }
 
@@ -86,7 +111,7 @@ public class Metadata {
      * @return the types as a stream
      */
     public Stream<Type> types() {
-        return typesByDefinitionIndex.values().stream();
+        return typesByDefinitionIndex.values();
     }
 
     /**
@@ -97,10 +122,10 @@ public class Metadata {
      * @exception java.util.NoSuchElementException thrown if the enumeration type does not exist
      */
     public EnumType getEnumType(String name) {
-        return (EnumType) types()
-                .filter(EnumType.class::isInstance)
-                .filter(type -> type.name().equals(name))
-                .findFirst().orElseThrow();
+        var enumType = enumsByName.get(name);
+        if (enumType == null)
+            throw new NoSuchElementException("No enumeration named " + name);
+        return enumType;
     }
 
     /**
@@ -156,6 +181,7 @@ public class Metadata {
         assert type.typeDefIndex() != 0;
         assert !typesByDefinitionIndex.containsKey(type.typeDefIndex());
         typesByDefinitionIndex.put(type.typeDefIndex(), type);
+        indexType(type);
 
         if (type instanceof Struct struct && struct.enclosingType() != null) {
             struct.enclosingType().addNestedType(type);
@@ -165,6 +191,21 @@ public class Metadata {
         }
     }
 
+    /**
+     * Registers a type restored from a snapshot.
+     * <p>
+     * Unlike {@link #addType(Type, boolean)}, the type is not added to its namespace
+     * or enclosing type.
+     * </p>
+     *
+     * @param type the type
+     */
+    void restoreType(Type type) {
+        assert type.typeDefIndex() != 0;
+        if (typesByDefinitionIndex.putIfAbsent(type.typeDefIndex(), type) == null)
+            indexType(type);
+    }
+
     /**
      * Removes a type from this metadata.
      *
@@ -176,6 +217,7 @@ public class Metadata {
         assert typesByDefinitionIndex.containsKey(type.typeDefIndex());
         var removed = typesByDefinitionIndex.remove(type.typeDefIndex());
         assert removed != null;
+        unindexType(type);
 
         assert !(type instanceof Struct struct && struct.enclosingType() != null);
 
@@ -189,7 +231,7 @@ public class Metadata {
      * @return the methods as a stream
      */
     public Stream<Method> methods() {
-        return methodsByMethodDefIndex.values().stream();
+        return methodsByMethodDefIndex.values();
     }
 
     /**
@@ -203,6 +245,7 @@ public class Metadata {
         assert method.methodDefIndex() != 0;
         assert !methodsByMethodDefIndex.containsKey(method.methodDefIndex());
         methodsByMethodDefIndex.put(method.methodDefIndex(), method);
+        methodsByNativeName.computeIfAbsent(method.nativeName(), it -> new ArrayList<>(1)).add(method);
     }
 
     /**
@@ -214,6 +257,16 @@ public class Metadata {
         return namespaces.values().stream().flatMap(namespace -> namespace.constants().values().stream());
     }
 
+    /**
+     * Adds a constant to this metadata.
+     *
+     * @param constant the constant
+     */
+    public void addConstant(ConstantValue constant) {
+        constant.namespace().addConstant(constant);
+        constantsByName.computeIfAbsent(constant.name(), it -> new ArrayList<>(1)).add(constant);
+    }
+
     /**
      * Creates a pointer referencing the specified type.
      * <p>
@@ -227,6 +280,15 @@ public class Metadata {
         return pointersByType.computeIfAbsent(type, it -> new Pointer(it.name() + "*", it));
     }
 
+    /**
+     * Registers a pointer restored from a snapshot so it is reused by {@link #makePointerFor(Type)}.
+     *
+     * @param pointer the pointer
+     */
+    void restorePointer(Pointer pointer) {
+        pointersByType.putIfAbsent(pointer.referencedType(), pointer);
+    }
+
     /**
      * Creates an alias for the specified {@code TypeDef} index.
      * <p>
@@ -253,7 +315,7 @@ public class Metadata {
      * @return the found structs (as a list)
      */
     public List<Type> findStructs(Set<String> names) {
-        return types().filter(type -> type instanceof Struct && names.contains(type.nativeName())).toList();
+        return findTypes(names, Struct.class);
     }
 
     /**
@@ -267,18 +329,26 @@ public class Metadata {
      * @return the found enumerations (as a list)
      */
     public List<Type> findEnums(Set<String> names) {
-        return types().filter(type -> type instanceof EnumType && names.contains(type.nativeName())).toList();
+        return findTypes(names, EnumType.class);
     }
 
     /**
      * Finds enumerations containing a member with the given name.
+     * <p>
+     * The index of enumeration members is built on first use. It is discarded
+     * if enumeration types are added or removed.
+     * </p>
      *
      * @param memberName the member name
      * @return the enumerations
      */
     public List<EnumType> findEnumWithMember(String memberName) {
-        return types().filter(type -> type instanceof EnumType enumType && enumType.getMember(memberName) != null)
-                .map(EnumType.class::cast).toList();
+        var index = enumsByMemberName;
+        if (index == null) {
+            index = buildEnumMemberIndex();
+            enumsByMemberName = index;
+        }
+        return index.getOrDefault(memberName, List.of());
     }
 
     /**
@@ -292,7 +362,7 @@ public class Metadata {
      * @return the found delegates (as a list)
      */
     public List<Type> findDelegates(Set<String> names) {
-        return types().filter(type -> type instanceof Delegate && names.contains(type.nativeName())).toList();
+        return findTypes(names, Delegate.class);
     }
 
     /**
@@ -306,7 +376,7 @@ public class Metadata {
      * @return the found COM interfaces (as a list)
      */
     public List<Type> findComInterfaces(Set<String> names) {
-        return types().filter(type -> type instanceof ComInterface && names.contains(type.nativeName())).toList();
+        return findTypes(names, ComInterface.class);
     }
 
     /**
@@ -321,7 +391,9 @@ public class Metadata {
      * @return the found functions (as a list)
      */
     public List<Method> findFunctions(Set<String> names) {
-        return methods().filter(method -> names.contains(method.nativeName())).toList();
+        return names.stream()
+                .flatMap(name -> methodsByNativeName.getOrDefault(name, List.of()).stream())
+                .toList();
     }
 
     /**
@@ -335,7 +407,49 @@ public class Metadata {
      * @return the found constants (as a list)
      */
     public List<ConstantValue> findConstants(Set<String> names) {
-        return constants().filter(constant -> names.contains(constant.name())).toList();
+        return names.stream()
+                .flatMap(name -> constantsByName.getOrDefault(name, List.of()).stream())
+                .toList();
+    }
+
+    private List<Type> findTypes(Set<String> names, Class<? extends Type> typeClass) {
+        return names.stream()
+                .flatMap(name -> typesByNativeName.getOrDefault(name, List.of()).stream())
+                .filter(typeClass::isInstance)
+                .toList();
+    }
+
+    private void indexType(Type type) {
+        typesByNativeName.computeIfAbsent(type.nativeName(), it -> new ArrayList<>(1)).add(type);
+        if (type instanceof EnumType enumType) {
+            enumsByName.putIfAbsent(enumType.name(), enumType);
+            enumsByMemberName = null;
+        }
+    }
+
+    private void unindexType(Type type) {
+        var sameName = typesByNativeName.get(type.nativeName());
+        if (sameName != null) {
+            sameName.remove(type);
+            if (sameName.isEmpty())
+                typesByNativeName.remove(type.nativeName());
+        }
+        if (type instanceof EnumType enumType) {
+            enumsByName.remove(enumType.name(), enumType);
+            enumsByMemberName = null;
+        }
+    }
+
+    private Map<String, List<EnumType>> buildEnumMemberIndex() {
+        var index = new HashMap<String, List<EnumType>>();
+        typesByDefinitionIndex.values()
+                .filter(EnumType.class::isInstance)
+                .map(EnumType.class::cast)
+                .forEach(enumType -> {
+                    for (var member : enumType.members())
+                        index.computeIfAbsent(member.name(), it -> new ArrayList<>(1)).add(enumType);
+                });
+        return index;
     }
 
     private void addSystemGuid() {
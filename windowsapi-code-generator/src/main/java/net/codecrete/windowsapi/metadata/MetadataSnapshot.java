@@ -0,0 +1,804 @@
+//
+// Windows API Generator for Java
+// Copyright (c) 2025 Manuel Bleichenbacher
+// Licensed under MIT License
+// https://opensource.org/licenses/MIT
+//
+package net.codecrete.windowsapi.metadata;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Binary snapshot of the metadata.
+ * <p>
+ * A snapshot contains the fully built metadata (namespaces, types, members, methods,
+ * constants and struct layouts). Loading a snapshot is considerably faster than
+ * building the metadata from the .winmd file.
+ * </p>
+ * <p>
+ * The snapshot is a graph serialization: every type reachable from the metadata is assigned
+ * an index. In a first pass, the type instances are created. Types with final references to
+ * other types (pointers, arrays and nested structs) always come after the referenced types.
+ * In a second pass, the remaining type details are restored. They can refer to any type.
+ * </p>
+ * <p>
+ * The format is specific to a version of this software. Snapshots must not be used with
+ * a different version.
+ * </p>
+ */
+@SuppressWarnings("java:S1192")
+public class MetadataSnapshot {
+
+    /**
+     * Version of the snapshot format.
+     * <p>
+     * Must be increased whenever the format or the metadata model changes.
+     * </p>
+     */
+    public static final int FORMAT_VERSION = 2;
+
+    private static final int MAGIC = 0x574d5350; // "WMSP"
+
+    private static final int PRIMITIVE = 1;
+    private static final int SYSTEM_GUID = 2;
+    private static final int POINTER = 3;
+    private static final int ARRAY = 4;
+    private static final int STRUCT = 5;
+    private static final int ENUM = 6;
+    private static final int DELEGATE = 7;
+    private static final int COM_INTERFACE = 8;
+    private static final int ALIAS = 9;
+
+    private static final int VALUE_NULL = 0;
+    private static final int VALUE_BYTE = 1;
+    private static final int VALUE_SHORT = 2;
+    private static final int VALUE_INT = 3;
+    private static final int VALUE_LONG = 4;
+    private static final int VALUE_FLOAT = 5;
+    private static final int VALUE_DOUBLE = 6;
+    private static final int VALUE_STRING = 7;
+    private static final int VALUE_UUID = 8;
+    private static final int VALUE_CHAR = 9;
+    private static final int VALUE_BOOLEAN = 10;
+
+    private MetadataSnapshot() {
+    }
+
+    /**
+     * Writes a snapshot of the metadata to the output stream.
+     *
+     * @param metadata     the metadata
+     * @param outputStream the output stream
+     * @throws IOException if writing fails
+     */
+    public static void write(Metadata metadata, OutputStream outputStream) throws IOException {
+        var out = new DataOutputStream(outputStream);
+        new Writer(metadata, out).write();
+        out.flush();
+    }
+
+    /**
+     * Reads a snapshot and restores the metadata.
+     * <p>
+     * Documentation URLs are not decoded but refer to the provided buffer.
+     * So the buffer contents must not be modified as long as the metadata is in use.
+     * </p>
+     *
+     * @param buffer the buffer with the snapshot data
+     * @return the restored metadata
+     * @throws IllegalArgumentException if the snapshot is invalid or has an incompatible format
+     */
+    public static Metadata read(ByteBuffer buffer) {
+        try {
+            return new Reader(buffer.slice()).read();
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | ClassCastException e) {
+            throw new IllegalArgumentException("Invalid metadata snapshot", e);
+        }
+    }
+
+    private static class Writer {
+        private final Metadata metadata;
+        private final DataOutputStream out;
+        private final Type systemGuid;
+        private final List<Namespace> namespaces;
+        private final Map<Namespace, Integer> namespaceIds = new HashMap<>();
+        private final List<Type> types = new ArrayList<>();
+        private final Map<Type, Integer> typeIds = new IdentityHashMap<>();
+        private final Deque<Type> pendingTypes = new ArrayDeque<>();
+
+        private Writer(Metadata metadata, DataOutputStream out) {
+            this.metadata = metadata;
+            this.out = out;
+            systemGuid = metadata.getType("System", "Guid");
+            namespaces = metadata.namespaces().values().stream()
+                    .sorted(Comparator.comparing(Namespace::name))
+                    .toList();
+            for (int i = 0; i < namespaces.size(); i += 1)
+                namespaceIds.put(namespaces.get(i), i);
+        }
+
+        private void write() throws IOException {
+            collectTypes();
+
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+
+            out.writeInt(namespaces.size());
+            for (var namespace : namespaces)
+                writeString(namespace.name());
+
+            out.writeInt(types.size());
+            for (var type : types)
+                writeTypeHeader(type);
+            for (var type : types)
+                writeTypeDetails(type);
+
+            var registeredTypes = metadata.types().toList();
+            out.writeInt(registeredTypes.size());
+            for (var type : registeredTypes)
+                writeTypeRef(type);
+
+            for (var namespace : namespaces) {
+                out.writeInt(namespace.types().size());
+                for (var entry : namespace.types().entrySet()) {
+                    writeString(entry.getKey());
+                    writeTypeRef(entry.getValue());
+                }
+            }
+
+            var methods = metadata.methods().toList();
+            out.writeInt(methods.size());
+            for (var method : methods)
+                writeMethod(method);
+
+            for (var namespace : namespaces) {
+                out.writeInt(namespace.constants().size());
+                for (var constant : namespace.constants().values()) {
+                    writeString(constant.name());
+                    writeTypeRef(constant.type());
+                    writeValue(constant.value());
+                    out.writeBoolean(constant.isAnsiEncoding());
+                    writeLazyString(constant.documentationUrl());
+                }
+            }
+        }
+
+        /**
+         * Assigns an index to all reachable types.
+         */
+        private void collectTypes() {
+            metadata.types().forEach(this::addType);
+            metadata.methods().forEach(this::addMethodTypes);
+            metadata.constants().forEach(constant -> addType(constant.type()));
+
+            while (!pendingTypes.isEmpty()) {
+                var type = pendingTypes.removeFirst();
+                switch (type) {
+                    case Struct struct -> {
+                        if (struct.members() != null)
+                            struct.members().forEach(member -> addType(member.type()));
+                        if (struct.hasNestedTypes())
+                            struct.nestedTypes().forEach(this::addType);
+                    }
+                    case EnumType enumType -> {
+                        if (enumType.baseType() != null)
+                            addType(enumType.baseType());
+                        if (enumType.members() != null)
+                            enumType.members().forEach(member -> addType(member.type()));
+                    }
+                    case Delegate delegate -> {
+                        if (delegate.signature() != null)
+                            addMethodTypes(delegate.signature());
+                    }
+                    case ComInterface comInterface -> {
+                        if (comInterface.methods() != null)
+                            comInterface.methods().forEach(this::addMethodTypes);
+                        if (comInterface.implementedInterface() != null)
+                            addType(comInterface.implementedInterface());
+                    }
+                    case TypeAlias typeAlias -> {
+                        if (typeAlias.aliasedType() != null)
+                            addType(typeAlias.aliasedType());
+                    }
+                    default -> { /* no further references */ }
+                }
+            }
+        }
+
+        private void addMethodTypes(Method method) {
+            if (method.returnType() != null)
+                addType(method.returnType());
+            for (var parameter : method.parameters()) {
+                addType(parameter.type());
+                if (parameter.associatedEnumType() != null)
+                    addType(parameter.associatedEnumType());
+            }
+        }
+
+        private void addType(Type type) {
+            if (typeIds.containsKey(type))
+                return;
+
+            // types referenced by final fields must be created first
+            switch (type) {
+                case Pointer pointer -> addType(pointer.referencedType());
+                case Array array -> addType(array.itemType());
+                case Struct struct when struct.enclosingType() != null -> addType(struct.enclosingType());
+                default -> { /* no dependencies */ }
+            }
+
+            typeIds.put(type, types.size());
+            types.add(type);
+            pendingTypes.addLast(type);
+        }
+
+        private void writeTypeHeader(Type type) throws IOException {
+            if (type == systemGuid) {
+                out.writeByte(SYSTEM_GUID);
+                return;
+            }
+
+            switch (type) {
+                case Primitive primitive -> {
+                    out.writeByte(PRIMITIVE);
+                    out.writeByte(primitive.kind().ordinal());
+                }
+                case Pointer pointer -> {
+                    out.writeByte(POINTER);
+                    writeString(pointer.name());
+                    writeTypeRef(pointer.referencedType());
+                }
+                case Array array -> {
+                    out.writeByte(ARRAY);
+                    writeString(array.name());
+                    writeNamespaceRef(array.namespace());
+                    out.writeInt(array.typeDefIndex());
+                    writeTypeRef(array.itemType());
+                    out.writeInt(array.arrayLength());
+                    out.writeBoolean(array.isFlexible());
+                }
+                case Struct struct -> {
+                    out.writeByte(STRUCT);
+                    writeNamedTypeHeader(struct);
+                    out.writeBoolean(struct.isUnion());
+                    writeTypeRef(struct.enclosingType());
+                    writeString(struct.structSizeMember());
+                    writeUuid(struct.guid());
+                }
+                case EnumType enumType -> {
+                    out.writeByte(ENUM);
+                    writeNamedTypeHeader(enumType);
+                    out.writeBoolean(enumType.isEnumFlags());
+                }
+                case Delegate delegate -> {
+                    out.writeByte(DELEGATE);
+                    writeNamedTypeHeader(delegate);
+                }
+                case ComInterface comInterface -> {
+                    out.writeByte(COM_INTERFACE);
+                    writeNamedTypeHeader(comInterface);
+                    writeUuid(comInterface.getIid());
+                }
+                case TypeAlias typeAlias -> {
+                    out.writeByte(ALIAS);
+                    writeNamedTypeHeader(typeAlias);
+                }
+            }
+        }
+
+        private void writeNamedTypeHeader(Type type) throws IOException {
+            writeString(type.nativeName());
+            writeString(type.name());
+            writeNamespaceRef(type.namespace());
+            out.writeInt(type.typeDefIndex());
+            writeLazyString(type.documentationUrl());
+        }
+
+        private void writeTypeDetails(Type type) throws IOException {
+            switch (type) {
+                case Struct struct -> {
+                    out.writeInt(struct.packageSize());
+                    out.writeInt(struct.structSize());
+                    writeMembers(struct.members());
+                    if (struct.hasNestedTypes()) {
+                        out.writeInt(struct.nestedTypes().size());
+                        for (var nestedType : struct.nestedTypes())
+                            writeTypeRef(nestedType);
+                    } else {
+                        out.writeInt(0);
+                    }
+                    out.writeBoolean(struct.isLayoutDone());
+                    out.writeBoolean(struct.isArchitectureSpecific());
+                    writeMemberRef(struct, struct.flexibleArrayMember());
+                }
+                case EnumType enumType -> {
+                    writeTypeRef(enumType.baseType());
+                    writeMembers(enumType.members());
+                }
+                case Delegate delegate -> writeNullableMethod(delegate.signature());
+                case ComInterface comInterface -> {
+                    var methods = comInterface.methods();
+                    out.writeInt(methods != null ? methods.size() : -1);
+                    if (methods != null) {
+                        for (var method : methods)
+                            writeMethod(method);
+                    }
+                    writeTypeRef(comInterface.implementedInterface());
+                }
+                case TypeAlias typeAlias -> {
+                    writeTypeRef(typeAlias.aliasedType());
+                    out.writeBoolean(typeAlias.isHandle());
+                }
+                default -> { /* no details */ }
+            }
+        }
+
+        private void writeMembers(List<Member> members) throws IOException {
+            if (members == null) {
+                out.writeInt(-1);
+                return;
+            }
+
+            out.writeInt(members.size());
+            for (var member : members) {
+                writeString(member.name());
+                out.writeInt(member.fieldIndex());
+                writeTypeRef(member.type());
+                writeValue(member.value());
+                out.writeInt(member.offset());
+                out.writeInt(member.paddingAfter());
+            }
+        }
+
+        /**
+         * Writes a reference to a member of the given struct or of one of its embedded structs.
+         *
+         * @param struct the struct
+         * @param member the member
+         * @throws IOException if writing fails
+         */
+        private void writeMemberRef(Struct struct, Member member) throws IOException {
+            if (member == null) {
+                out.writeInt(-1);
+                return;
+            }
+
+            var owner = findMemberOwner(struct, member);
+            if (owner == null)
+                throw new IllegalStateException("Flexible array member not found in struct " + struct.name());
+            writeTypeRef(owner);
+            out.writeInt(owner.members().indexOf(member));
+        }
+
+        private static Struct findMemberOwner(Struct struct, Member member) {
+            if (struct.members() == null)
+                return null;
+            for (var m : struct.members()) {
+                if (m == member)
+                    return struct;
+            }
+            for (var m : struct.members()) {
+                if (m.type() instanceof Struct embedded) {
+                    var owner = findMemberOwner(embedded, member);
+                    if (owner != null)
+                        return owner;
+                }
+            }
+            return null;
+        }
+
+        private void writeNullableMethod(Method method) throws IOException {
+            out.writeBoolean(method != null);
+            if (method != null)
+                writeMethod(method);
+        }
+
+        private void writeMethod(Method method) throws IOException {
+            writeString(method.nativeName());
+            writeString(method.name());
+            writeNamespaceRef(method.namespace());
+            out.writeInt(method.methodDefIndex());
+            writeTypeRef(method.returnType());
+            var parameters = method.parameters();
+            out.writeInt(parameters.length);
+            for (var parameter : parameters) {
+                writeString(parameter.name());
+                writeTypeRef(parameter.type());
+                writeTypeRef(parameter.associatedEnumType());
+            }
+            writeString(method.dll());
+            out.writeBoolean(method.supportsLastError());
+            writeValue(method.constantValue());
+            writeLazyString(method.documentationUrl());
+        }
+
+        private void writeTypeRef(Type type) throws IOException {
+            if (type == null) {
+                out.writeInt(-1);
+                return;
+            }
+
+            var id = typeIds.get(type);
+            if (id == null)
+                throw new IllegalStateException("Type not included in snapshot: " + type.name());
+            out.writeInt(id);
+        }
+
+        private void writeNamespaceRef(Namespace namespace) throws IOException {
+            if (namespace == null) {
+                out.writeInt(-1);
+                return;
+            }
+
+            var id = namespaceIds.get(namespace);
+            if (id == null)
+                throw new IllegalStateException("Namespace not included in snapshot: " + namespace.name());
+            out.writeInt(id);
+        }
+
+        private void writeValue(Object value) throws IOException {
+            switch (value) {
+                case null -> out.writeByte(VALUE_NULL);
+                case Byte b -> {
+                    out.writeByte(VALUE_BYTE);
+                    out.writeByte(b);
+                }
+                case Short s -> {
+                    out.writeByte(VALUE_SHORT);
+                    out.writeShort(s);
+                }
+                case Integer i -> {
+                    out.writeByte(VALUE_INT);
+                    out.writeInt(i);
+                }
+                case Long l -> {
+                    out.writeByte(VALUE_LONG);
+                    out.writeLong(l);
+                }
+                case Float f -> {
+                    out.writeByte(VALUE_FLOAT);
+                    out.writeFloat(f);
+                }
+                case Double d -> {
+                    out.writeByte(VALUE_DOUBLE);
+                    out.writeDouble(d);
+                }
+                case String s -> {
+                    out.writeByte(VALUE_STRING);
+                    writeString(s);
+                }
+                case UUID uuid -> {
+                    out.writeByte(VALUE_UUID);
+                    writeUuid(uuid);
+                }
+                case Character c -> {
+                    out.writeByte(VALUE_CHAR);
+                    out.writeChar(c);
+                }
+                case Boolean b -> {
+                    out.writeByte(VALUE_BOOLEAN);
+                    out.writeBoolean(b);
+                }
+                default -> throw new IllegalStateException("Unsupported value type: " + value.getClass().getName());
+            }
+        }
+
+        private void writeUuid(UUID uuid) throws IOException {
+            out.writeBoolean(uuid != null);
+            if (uuid != null) {
+                out.writeLong(uuid.getMostSignificantBits());
+                out.writeLong(uuid.getLeastSignificantBits());
+            }
+        }
+
+        private void writeString(String s) throws IOException {
+            if (s == null) {
+                out.writeInt(-1);
+                return;
+            }
+
+            var bytes = s.getBytes(UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        private void writeLazyString(LazyString s) throws IOException {
+            writeString(s != null ? s.toString() : null);
+        }
+    }
+
+    private static class Reader {
+        private final ByteBuffer in;
+        private final Metadata metadata = new Metadata();
+        private Namespace[] namespaces;
+        private Type[] types;
+        private final List<PendingMemberRef> pendingFlexibleArrayMembers = new ArrayList<>();
+
+        private Reader(ByteBuffer in) {
+            this.in = in;
+        }
+
+        private Metadata read() {
+            if (in.getInt() != MAGIC)
+                throw new IllegalArgumentException("Invalid metadata snapshot");
+            var version = in.getInt();
+            if (version != FORMAT_VERSION)
+                throw new IllegalArgumentException("Unsupported metadata snapshot version " + version);
+
+            namespaces = new Namespace[in.getInt()];
+            for (int i = 0; i < namespaces.length; i += 1)
+                namespaces[i] = metadata.getOrCreateNamespace(readString());
+
+            types = new Type[in.getInt()];
+            for (int i = 0; i < types.length; i += 1)
+                types[i] = readTypeHeader();
+            for (var type : types)
+                readTypeDetails(type);
+            resolveFlexibleArrayMembers();
+
+            var numRegisteredTypes = in.getInt();
+            for (int i = 0; i < numRegisteredTypes; i += 1)
+                metadata.restoreType(readTypeRef());
+
+            for (var namespace : namespaces) {
+                var numTypes = in.getInt();
+                for (int i = 0; i < numTypes; i += 1)
+                    namespace.types().put(readString(), readTypeRef());
+            }
+
+            var numMethods = in.getInt();
+            for (int i = 0; i < numMethods; i += 1)
+                metadata.addMethod(readMethod());
+
+            for (var namespace : namespaces) {
+                var numConstants = in.getInt();
+                for (int i = 0; i < numConstants; i += 1) {
+                    var name = readString();
+                    var type = readTypeRef();
+                    var value = readValue();
+                    var isAnsiEncoding = readBoolean();
+                    var documentationUrl = readLazyString();
+                    metadata.addConstant(new ConstantValue(name, namespace, type, value, isAnsiEncoding,
+                            documentationUrl));
+                }
+            }
+
+            return metadata;
+        }
+
+        private Type readTypeHeader() {
+            var kind = in.get();
+            return switch (kind) {
+                case PRIMITIVE -> metadata.getPrimitive(PrimitiveKind.values()[in.get()]);
+                case SYSTEM_GUID -> metadata.getType("System", "Guid");
+                case POINTER -> {
+                    var name = readString();
+                    var pointer = new Pointer(name, readTypeRef());
+                    metadata.restorePointer(pointer);
+                    yield pointer;
+                }
+                case ARRAY -> {
+                    var name = readString();
+                    var namespace = readNamespaceRef();
+                    var typeDefIndex = in.getInt();
+                    var itemType = readTypeRef();
+                    var array = new Array(name, namespace, typeDefIndex, itemType, in.getInt());
+                    array.setFlexible(readBoolean());
+                    yield array;
+                }
+                case STRUCT -> {
+                    var header = readNamedTypeHeader();
+                    var isUnion = readBoolean();
+                    var enclosingType = (Struct) readTypeRef();
+                    var structSizeMember = readString();
+                    var guid = readUuid();
+                    yield header.apply(new Struct(header.nativeName, header.namespace, header.typeDefIndex, isUnion,
+                            0, 0, enclosingType, structSizeMember, guid));
+                }
+                case ENUM -> {
+                    var header = readNamedTypeHeader();
+                    yield header.apply(new EnumType(header.nativeName, header.namespace, header.typeDefIndex,
+                            readBoolean()));
+                }
+                case DELEGATE -> {
+                    var header = readNamedTypeHeader();
+                    yield header.apply(new Delegate(header.nativeName, header.namespace, header.typeDefIndex));
+                }
+                case COM_INTERFACE -> {
+                    var header = readNamedTypeHeader();
+                    yield header.apply(new ComInterface(header.nativeName, header.namespace, header.typeDefIndex,
+                            readUuid()));
+                }
+                case ALIAS -> {
+                    var header = readNamedTypeHeader();
+                    yield header.apply(metadata.makeAliasFor(header.typeDefIndex, header.nativeName,
+                            header.namespace));
+                }
+                default -> throw new IllegalArgumentException("Invalid type kind in metadata snapshot: " + kind);
+            };
+        }
+
+        private NamedTypeHeader readNamedTypeHeader() {
+            return new NamedTypeHeader(readString(), readString(), readNamespaceRef(), in.getInt(),
+                    readLazyString());
+        }
+
+        private void readTypeDetails(Type type) {
+            switch (type) {
+                case Struct struct -> {
+                    struct.setPackageSize(in.getInt());
+                    struct.setStructSize(in.getInt());
+                    struct.setMembers(readMembers());
+                    var numNestedTypes = in.getInt();
+                    for (int i = 0; i < numNestedTypes; i += 1)
+                        struct.addNestedType(readTypeRef());
+                    if (readBoolean())
+                        struct.setLayoutDone();
+                    struct.setArchitectureSpecific(readBoolean());
+                    // the owner of the flexible array member might not have been read yet
+                    var ownerId = in.getInt();
+                    if (ownerId >= 0) {
+                        var memberIndex = in.getInt();
+                        pendingFlexibleArrayMembers.add(new PendingMemberRef(struct, ownerId, memberIndex));
+                    }
+                }
+                case EnumType enumType -> {
+                    enumType.setBaseType((Primitive) readTypeRef());
+                    enumType.setMembers(readMembers());
+                }
+                case Delegate delegate -> {
+                    if (readBoolean())
+                        delegate.setSignature(readMethod());
+                }
+                case ComInterface comInterface -> {
+                    var numMethods = in.getInt();
+                    if (numMethods >= 0) {
+                        var methods = new ArrayList<Method>(numMethods);
+                        for (int i = 0; i < numMethods; i += 1)
+                            methods.add(readMethod());
+                        comInterface.setMethods(methods);
+                    }
+                    var implementedInterface = (ComInterface) readTypeRef();
+                    comInterface.setImplementedInterfaces(
+                            implementedInterface != null ? List.of(implementedInterface) : List.of());
+                }
+                case TypeAlias typeAlias -> {
+                    var aliasedType = readTypeRef();
+                    if (aliasedType != null)
+                        typeAlias.setAliasedType(aliasedType);
+                    typeAlias.setHandle(readBoolean());
+                }
+                default -> { /* no details */ }
+            }
+        }
+
+        private void resolveFlexibleArrayMembers() {
+            for (var ref : pendingFlexibleArrayMembers) {
+                var owner = (Struct) types[ref.ownerId];
+                ref.struct.setFlexibleArrayMember(owner.members().get(ref.memberIndex));
+            }
+        }
+
+        private List<Member> readMembers() {
+            var numMembers = in.getInt();
+            if (numMembers < 0)
+                return null;
+
+            var members = new ArrayList<Member>(numMembers);
+            for (int i = 0; i < numMembers; i += 1) {
+                var name = readString();
+                var fieldIndex = in.getInt();
+                var type = readTypeRef();
+                var member = new Member(name, fieldIndex, type, readValue());
+                member.setOffset(in.getInt());
+                member.setPaddingAfter(in.getInt());
+                members.add(member);
+            }
+            return members;
+        }
+
+        private Method readMethod() {
+            var nativeName = readString();
+            var name = readString();
+            var namespace = readNamespaceRef();
+            var method = new Method(nativeName, namespace, in.getInt());
+            method.setName(name);
+            method.setReturnType(readTypeRef());
+            var parameters = new Parameter[in.getInt()];
+            for (int i = 0; i < parameters.length; i += 1)
+                parameters[i] = new Parameter(readString(), readTypeRef(), (EnumType) readTypeRef());
+            method.setParameters(parameters);
+            method.setDll(readString());
+            method.setSupportsLastError(readBoolean());
+            method.setConstantValue(readValue());
+            method.setDocumentationUrl(readLazyString());
+            return method;
+        }
+
+        private Type readTypeRef() {
+            var id = in.getInt();
+            return id >= 0 ? types[id] : null;
+        }
+
+        private Namespace readNamespaceRef() {
+            var id = in.getInt();
+            return id >= 0 ? namespaces[id] : null;
+        }
+
+        private Object readValue() {
+            var kind = in.get();
+            return switch (kind) {
+                case VALUE_NULL -> null;
+                case VALUE_BYTE -> in.get();
+                case VALUE_SHORT -> in.getShort();
+                case VALUE_INT -> in.getInt();
+                case VALUE_LONG -> in.getLong();
+                case VALUE_FLOAT -> in.getFloat();
+                case VALUE_DOUBLE -> in.getDouble();
+                case VALUE_STRING -> readString();
+                case VALUE_UUID -> readUuid();
+                case VALUE_CHAR -> in.getChar();
+                case VALUE_BOOLEAN -> readBoolean();
+                default -> throw new IllegalArgumentException("Invalid value kind in metadata snapshot: " + kind);
+            };
+        }
+
+        private UUID readUuid() {
+            if (!readBoolean())
+                return null;
+            var mostSigBits = in.getLong();
+            return new UUID(mostSigBits, in.getLong());
+        }
+
+        private boolean readBoolean() {
+            return in.get() != 0;
+        }
+
+        private String readString() {
+            var length = in.getInt();
+            if (length < 0)
+                return null;
+
+            var bytes = new byte[length];
+            in.get(bytes);
+            return new String(bytes, UTF_8);
+        }
+
+        private LazyString readLazyString() {
+            var length = in.getInt();
+            if (length < 0)
+                return null;
+
+            var offset = in.position();
+            in.position(offset + length);
+            return new LazyString(in, offset, length);
+        }
+    }
+
+    private record NamedTypeHeader(String nativeName, String name, Namespace namespace, int typeDefIndex,
+                                   LazyString documentationUrl) {
+        <T extends Type> T apply(T type) {
+            type.setName(name);
+            type.setDocumentationUrl(documentationUrl);
+            return type;
+        }
+    }
+
+    private record PendingMemberRef(Struct struct, int ownerId, int memberIndex) {
+    }
+}
@@ -0,0 +1,191 @@
+//
+// Windows API Generator for Java
+// Copyright (c) 2025 Manuel Bleichenbacher
+// Licensed under MIT License
+// https://opensource.org/licenses/MIT
+//
+package net.codecrete.windowsapi.metadata;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+
+/**
+ * Map using metadata table row indexes (such as {@code TypeDef} or {@code MethodDef} indexes) as keys.
+ * <p>
+ * Row indexes are dense. They are stored in an array that grows as needed, without
+ * boxing the key. Indexes beyond {@link #DENSE_LIMIT}, such as the synthetic indexes of
+ * architecture-specific type variants, are stored in a separate overflow map.
+ * </p>
+ *
+ * @param <V> the value type
+ */
+public final class RowMap<V> {
+
+    /**
+     * Indexes below this limit are stored in the dense array.
+     */
+    static final int DENSE_LIMIT = 1 << 18;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private Object[] values;
+    private final Map<Integer, V> overflow = new HashMap<>();
+    private int size;
+
+    /**
+     * Creates a new instance.
+     */
+    public RowMap() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Creates a new instance with the given initial capacity.
+     * <p>
+     * The capacity is typically the number of rows of the metadata table.
+     * </p>
+     *
+     * @param capacity the initial capacity
+     */
+    public RowMap(int capacity) {
+        values = new Object[Math.clamp(capacity + 1L, 1, DENSE_LIMIT)];
+    }
+
+    /**
+     * Gets the value for the given index.
+     *
+     * @param index the row index
+     * @return the value, or {@code null} if the map contains no value for the index
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int index) {
+        if (index >= 0 && index < values.length)
+            return (V) values[index];
+        if (index >= 0 && index < DENSE_LIMIT)
+            return null;
+        return overflow.get(index);
+    }
+
+    /**
+     * Checks if the map contains a value for the given index.
+     *
+     * @param index the row index
+     * @return {@code true} if it contains a value, {@code false} otherwise
+     */
+    public boolean containsKey(int index) {
+        return get(index) != null;
+    }
+
+    /**
+     * Sets the value for the given index.
+     *
+     * @param index the row index
+     * @param value the value (not {@code null})
+     * @return the previous value, or {@code null} if there was none
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int index, V value) {
+        Objects.requireNonNull(value);
+        V previous;
+        if (isDense(index)) {
+            ensureCapacity(index);
+            previous = (V) values[index];
+            values[index] = value;
+        } else {
+            previous = overflow.put(index, value);
+        }
+        if (previous == null)
+            size += 1;
+        return previous;
+    }
+
+    /**
+     * Sets the value for the given index unless the map already contains a value for it.
+     *
+     * @param index the row index
+     * @param value the value (not {@code null})
+     * @return the existing value, or {@code null} if the value has been set
+     */
+    public V putIfAbsent(int index, V value) {
+        var existing = get(index);
+        if (existing == null)
+            put(index, value);
+        return existing;
+    }
+
+    /**
+     * Gets the value for the given index or creates and sets it if it does not exist yet.
+     *
+     * @param index the row index
+     * @param mappingFunction the function creating the value
+     * @return the existing or new value
+     */
+    public V computeIfAbsent(int index, IntFunction<V> mappingFunction) {
+        var value = get(index);
+        if (value == null) {
+            value = mappingFunction.apply(index);
+            put(index, value);
+        }
+        return value;
+    }
+
+    /**
+     * Removes the value for the given index.
+     *
+     * @param index the row index
+     * @return the removed value, or {@code null} if there was none
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int index) {
+        V previous;
+        if (isDense(index)) {
+            if (index >= values.length)
+                return null;
+            previous = (V) values[index];
+            values[index] = null;
+        } else {
+            previous = overflow.remove(index);
+        }
+        if (previous != null)
+            size -= 1;
+        return previous;
+    }
+
+    /**
+     * Gets the number of values in this map.
+     *
+     * @return the number of values
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets all values.
+     * <p>
+     * The values with dense indexes are returned in index order.
+     * </p>
+     *
+     * @return the values as a stream
+     */
+    @SuppressWarnings("unchecked")
+    public Stream<V> values() {
+        var dense = Arrays.stream(values).filter(Objects::nonNull).map(value -> (V) value);
+        return overflow.isEmpty() ? dense : Stream.concat(dense, overflow.values().stream());
+    }
+
+    private static boolean isDense(int index) {
+        return index >= 0 && index < DENSE_LIMIT;
+    }
+
+    private void ensureCapacity(int index) {
+        if (index < values.length)
+            return;
+        var newLength = Math.clamp(Math.max(index + 1L, values.length * 2L), 1, DENSE_LIMIT);
+        values = Arrays.copyOf(values, newLength);
+    }
+}
@@ -13,6 +13,7 @@ package net.codecrete.windowsapi.metadata;
 public final class TypeAlias extends Type {
 
     private Type aliasedType;
+    private boolean isHandle;
 
     /**
      * Creates a new instance.
@@ -44,4 +45,26 @@ public final class TypeAlias extends Type {
                 || (aliasedType instanceof Pointer pointer && pointer.referencedType() instanceof Primitive);
         this.aliasedType = aliasedType;
     }
+
+    /**
+     * Indicates if this type is a handle.
+     * <p>
+     * Handles are marked with an invalid handle value or a function to free them
+     * (e.g., {@code HWND}, {@code HANDLE}, {@code HKEY}).
+     * </p>
+     *
+     * @return {@code true} if it is a handle, {@code false} otherwise
+     */
+    public boolean isHandle() {
+        return isHandle;
+    }
+
+    /**
+     * Sets if this type is a handle.
+     *
+     * @param isHandle {@code true} if it is a handle, {@code false} otherwise
+     */
+    public void setHandle(boolean isHandle) {
+        this.isHandle = isHandle;
+    }
 }
@@ -6,6 +6,8 @@
 //
 package net.codecrete.windowsapi.winmd;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 
 /**
@@ -18,18 +20,18 @@ import java.nio.charset.StandardCharsets;
  */
 public class Blob {
 
-    private final byte[] data;
+    private final ByteBuffer data;
     private int offset;
     private final int end;
 
     /**
      * Creates a new instance.
      *
-     * @param data   blob heap
+     * @param data   blob heap (in little-endian byte order)
      * @param offset offset into blob heap
      * @param length length.
      */
-    Blob(byte[] data, int offset, int length) {
+    Blob(ByteBuffer data, int offset, int length) {
         this.data = data;
         this.offset = offset;
         this.end = offset + length;
@@ -40,7 +42,7 @@ public class Blob {
      *
      * @return the heap
      */
-    byte[] data() {
+    ByteBuffer data() {
         return data;
     }
 
@@ -69,7 +71,7 @@ public class Blob {
      */
     int readByte() {
         assert offset < end;
-        int result = data[offset] & 0xff;
+        int result = data.get(offset) & 0xff;
         offset += 1;
         return result;
     }
@@ -81,10 +83,9 @@ public class Blob {
      */
     int readUInt16() {
         assert offset + 2 <= end;
-        int byte1 = data[offset] & 0xff;
-        int byte2 = data[offset + 1] & 0xff;
+        int result = data.getShort(offset) & 0xffff;
         offset += 2;
-        return (byte2 << 8) + byte1;
+        return result;
     }
 
     /**
@@ -94,12 +95,9 @@ public class Blob {
      */
     int readInt32() {
         assert offset + 4 <= end;
-        int byte1 = data[offset] & 0xff;
-        int byte2 = data[offset + 1] & 0xff;
-        int byte3 = data[offset + 2] & 0xff;
-        int byte4 = data[offset + 3] & 0xff;
+        int result = data.getInt(offset);
         offset += 4;
-        return (byte4 << 24) + (byte3 << 16) + (byte2 << 8) + byte1;
+        return result;
     }
 
     /**
@@ -109,9 +107,7 @@ public class Blob {
      */
     long readInt64() {
         assert offset + 8 <= end;
-        long result = 0;
-        for (int i = 0; i < 8; i += 1)
-            result |= (long) (data[offset + i] & 0xff) << i * 8;
+        long result = data.getLong(offset);
         offset += 8;
         return result;
     }
@@ -125,7 +121,7 @@ public class Blob {
         int len = readCompressedUnsignedInt();
         assert offset + len <= end;
         offset += len;
-        return new String(data, offset - len, len, StandardCharsets.UTF_8);
+        return decodeString(offset - len, len, StandardCharsets.UTF_8);
     }
 
     /**
@@ -137,7 +133,13 @@ public class Blob {
         int len = end - offset;
         assert (len & 1) == 0;
         offset = end;
-        return new String(data, offset - len, len, StandardCharsets.UTF_16LE);
+        return decodeString(offset - len, len, StandardCharsets.UTF_16LE);
+    }
+
+    private String decodeString(int start, int length, Charset charset) {
+        var codeUnits = new byte[length];
+        data.get(start, codeUnits);
+        return new String(codeUnits, charset);
     }
 
     /**
@@ -15,7 +15,6 @@ import net.codecrete.windowsapi.metadata.QualifiedName;
 import net.codecrete.windowsapi.metadata.Type;
 import net.codecrete.windowsapi.winmd.tables.CodedIndex;
 import net.codecrete.windowsapi.winmd.tables.CustomAttribute;
-import net.codecrete.windowsapi.winmd.tables.MemberRef;
 
 import java.util.Map;
 import java.util.Set;
@@ -49,9 +48,12 @@ class CustomAttributeDecoder extends Decoder {
     private static final QualifiedName DOCUMENTATION_ATTRIBUTE = new QualifiedName(METADATA, "DocumentationAttribute");
     private static final QualifiedName FLEXIBLE_ARRAY_ATTRIBUTE = new QualifiedName(METADATA, "FlexibleArrayAttribute");
     private static final QualifiedName GUID_ATTRIBUTE = new QualifiedName(METADATA, "GuidAttribute");
+    private static final QualifiedName INVALID_HANDLE_VALUE_ATTRIBUTE = new QualifiedName(METADATA,
+            "InvalidHandleValueAttribute");
     private static final QualifiedName NATIVE_ENCODING_ATTRIBUTE = new QualifiedName(METADATA,
             "NativeEncodingAttribute");
     private static final QualifiedName NATIVE_TYPEDEF_ATTRIBUTE = new QualifiedName(METADATA, "NativeTypedefAttribute");
+    private static final QualifiedName RAII_FREE_ATTRIBUTE = new QualifiedName(METADATA, "RAIIFreeAttribute");
     private static final QualifiedName STRUCT_SIZE_FIELD_ATTRIBUTE = new QualifiedName(METADATA,
             "StructSizeFieldAttribute");
     private static final QualifiedName SUPPORTED_ARCHITECTURE_ATTRIBUTE = new QualifiedName(METADATA,
@@ -72,6 +74,10 @@ class CustomAttributeDecoder extends Decoder {
             (context, data) -> data.guidConstant = createGuidConstant(context.getValue()),
             NATIVE_TYPEDEF_ATTRIBUTE,
             (context, data) -> data.isTypedef = true,
+            INVALID_HANDLE_VALUE_ATTRIBUTE,
+            (context, data) -> data.isHandle = true,
+            RAII_FREE_ATTRIBUTE,
+            (context, data) -> data.isHandle = true,
             STRUCT_SIZE_FIELD_ATTRIBUTE,
             (context, data) -> data.structSizeField = (String) context.getValue().fixedArguments()[0].value()
     );
@@ -88,9 +94,7 @@ class CustomAttributeDecoder extends Decoder {
             new QualifiedName(METADATA, "AlsoUsableForAttribute"),
             new QualifiedName(METADATA, "AnsiAttribute"),
             new QualifiedName(METADATA, "AssociatedConstantAttribute"),
-            new QualifiedName(METADATA, "InvalidHandleValueAttribute"),
             new QualifiedName(METADATA, "MetadataTypedefAttribute"),
-            new QualifiedName(METADATA, "RAIIFreeAttribute"),
             new QualifiedName(METADATA, "ScopedEnumAttribute"),
             new QualifiedName(METADATA, "SupportedOSPlatformAttribute"),
             new QualifiedName(METADATA, "UnicodeAttribute")
@@ -175,6 +179,9 @@ class CustomAttributeDecoder extends Decoder {
 
     private final MetadataFile metadataFile;
     private final Primitive stringType;
+    // attribute type names and constructor signatures, indexed by MemberRef row of the attribute constructor
+    private final QualifiedName[] attributeNames;
+    private final MethodSignature[] constructorSignatures;
 
     /**
      * Creates a new custom attribute decoder.
@@ -186,6 +193,8 @@ class CustomAttributeDecoder extends Decoder {
         super(typeLookup);
         this.metadataFile = metadataFile;
         this.stringType = typeLookup.getPrimitiveType(ElementTypes.STRING);
+        attributeNames = new QualifiedName[metadataFile.getMemberReferenceCount() + 1];
+        constructorSignatures = new MethodSignature[metadataFile.getMemberReferenceCount() + 1];
     }
 
     /**
@@ -246,28 +255,59 @@ class CustomAttributeDecoder extends Decoder {
             var constructor = customAttribute.constructorIndex();
             assert constructor.table() == MEMBER_REF;
             assert constructor.index() != 0;
-            var memberRef = metadataFile.getMemberRef(constructor.index());
+            var qualifiedName = getAttributeName(constructor.index());
+
+            if (ignoredAttributes.contains(qualifiedName))
+                continue;
+            var extractor = extractors.get(qualifiedName);
+            assert extractor != null;
+
+            var context = new ExtractionContext(this, customAttribute, constructor.index());
+            extractor.extract(context, data);
+        }
+    }
+
+    /**
+     * Gets the name of the attribute type for the given attribute constructor.
+     *
+     * @param memberRefIndex the {@code MemberRef} index of the constructor
+     * @return the qualified name of the attribute type
+     */
+    private QualifiedName getAttributeName(int memberRefIndex) {
+        var qualifiedName = attributeNames[memberRefIndex];
+        if (qualifiedName == null) {
+            var memberRef = metadataFile.getMemberRef(memberRefIndex);
             var parent = memberRef.parentIndex();
             assert parent.table() == TYPE_REF;
             assert parent.index() != 0;
             var typeRef = metadataFile.getTypeRef(parent.index());
-            var qualifiedName = new QualifiedName(
+            qualifiedName = new QualifiedName(
                     metadataFile.getString(typeRef.typeNamespace()),
                     metadataFile.getString(typeRef.typeName())
             );
+            attributeNames[memberRefIndex] = qualifiedName;
+        }
+        return qualifiedName;
+    }
 
-            if (ignoredAttributes.contains(qualifiedName))
-                continue;
-            var extractor = extractors.get(qualifiedName);
-            assert extractor != null;
-
-            var context = new ExtractionContext(this, customAttribute, memberRef);
-            extractor.extract(context, data);
+    /**
+     * Gets the signature of the given attribute constructor.
+     *
+     * @param memberRefIndex the {@code MemberRef} index of the constructor
+     * @return the decoded signature
+     */
+    private MethodSignature getConstructorSignature(int memberRefIndex) {
+        var methodSignature = constructorSignatures[memberRefIndex];
+        if (methodSignature == null) {
+            var memberRef = metadataFile.getMemberRef(memberRefIndex);
+            methodSignature = decodeMethodRefSignature(metadataFile.getBlob(memberRef.signature()));
+            constructorSignatures[memberRefIndex] = methodSignature;
         }
+        return methodSignature;
     }
 
-    private CustomAttributeValue getValue(CustomAttribute customAttribute, MemberRef memberRef) {
-        var methodSignature = decodeMethodRefSignature(metadataFile.getBlob(memberRef.signature()));
+    private CustomAttributeValue getValue(CustomAttribute customAttribute, int constructorIndex) {
+        var methodSignature = getConstructorSignature(constructorIndex);
         var valueBlob = metadataFile.getBlob(customAttribute.value());
         return decodeCustomAttributeValue(methodSignature, valueBlob);
     }
@@ -299,12 +339,12 @@ class CustomAttributeDecoder extends Decoder {
      * This method only works if this member has a single fixed attribute of type string.
      * </p>
      *
-     * @param customAttribute custom attribute
-     * @param memberRef       member reference (of value constructor)
+     * @param customAttribute  custom attribute
+     * @param constructorIndex {@code MemberRef} index of the attribute constructor
      * @return lazily decoded string
      */
-    private LazyString getLazyString(CustomAttribute customAttribute, MemberRef memberRef) {
-        var methodSignature = decodeMethodRefSignature(metadataFile.getBlob(memberRef.signature()));
+    private LazyString getLazyString(CustomAttribute customAttribute, int constructorIndex) {
+        var methodSignature = getConstructorSignature(constructorIndex);
         assert methodSignature.paramTypes().length == 1;
         assert methodSignature.paramTypes()[0] == stringType;
         var valueBlob = metadataFile.getBlob(customAttribute.value());
@@ -373,13 +413,13 @@ class CustomAttributeDecoder extends Decoder {
         return new UUID(mostSigBits, leastSigBits);
     }
 
-    record ExtractionContext(CustomAttributeDecoder decoder, CustomAttribute attribute, MemberRef memberRef) {
+    record ExtractionContext(CustomAttributeDecoder decoder, CustomAttribute attribute, int constructorIndex) {
         CustomAttributeValue getValue() {
-            return decoder.getValue(attribute, memberRef);
+            return decoder.getValue(attribute, constructorIndex);
         }
 
         LazyString getLazyString() {
-            return decoder.getLazyString(attribute, memberRef);
+            return decoder.getLazyString(attribute, constructorIndex);
         }
     }
 
@@ -28,13 +28,17 @@ import net.codecrete.windowsapi.winmd.tables.CodedIndex;
 import net.codecrete.windowsapi.winmd.tables.CodedIndexes;
 import net.codecrete.windowsapi.winmd.tables.Field;
 import net.codecrete.windowsapi.winmd.tables.TypeDef;
+import net.codecrete.windowsapi.winmd.tables.TypeRef;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -55,10 +59,21 @@ import static net.codecrete.windowsapi.winmd.tables.TypeDef.VISIBILITY_PUBLIC;
 
 /**
  * Processes a .winmd file and creates the connected data structure described the types, methods, etc.
+ * <p>
+ * If the system property {@code windowsapi.parallelBuild} is set to {@code true}, the method parameters,
+ * delegate signatures and the methods and constants of the API classes are decoded in parallel.
+ * Everything is registered in the same order as in a sequential build so the resulting model is identical.
+ * </p>
  */
 @SuppressWarnings("java:S4274")
 public class MetadataBuilder implements TypeLookup {
     private static final String APIS = "Apis";
+    private static final String WINMD_RESOURCE = "Windows.Win32.winmd";
+
+    /**
+     * Name of the system property for enabling the parallel build.
+     */
+    static final String PARALLEL_BUILD_PROPERTY = "windowsapi.parallelBuild";
 
     private final MetadataFile metadataFile;
     private final Metadata metadata;
@@ -71,24 +86,94 @@ public class MetadataBuilder implements TypeLookup {
     private final Primitive uintPtrType;
     private final Pointer voidPointerType;
     private final Struct systemGuidType;
+    private final boolean parallel;
+    // type references resolved independently of the context (MODULE and ASSEMBLY_REF scope), indexed by TypeRef row
+    private final Type[] typesByTypeRef;
+    // decoded names of type references, indexed by TypeRef row
+    private final QualifiedName[] typeRefNames;
 
     /**
      * Loads the metadata from the built-in .winmd file.
+     * <p>
+     * The .winmd file is memory-mapped. If it is packaged in a JAR file,
+     * it is extracted to the cache directory first. If this fails,
+     * the file is read into memory instead.
+     * </p>
      *
      * @return the loaded metadata
      */
     public static Metadata load() {
-        try (var stream = MetadataBuilder.class.getClassLoader().getResourceAsStream("Windows.Win32.winmd")) {
+        var winmdFile = MetadataCache.getResourceFile(WINMD_RESOURCE);
+        if (winmdFile != null)
+            return load(winmdFile);
+
+        try (var stream = MetadataBuilder.class.getClassLoader().getResourceAsStream(WINMD_RESOURCE)) {
             var builder = new MetadataBuilder(new MetadataFile(stream));
             return builder.build();
         } catch (IOException e) {
-            throw new WinmdException("Cannot open resource 'Windows.Win32.winmd'", e);
+            throw new WinmdException("Cannot open resource '" + WINMD_RESOURCE + "'", e);
         }
     }
 
+    /**
+     * Gets the metadata from the built-in .winmd file, shared by all users in this process.
+     * <p>
+     * The metadata is fully loaded (see {@link #load()}) on first use and then kept in a
+     * process-wide cache until the garbage collector reclaims it because memory gets scarce.
+     * It is keyed by the identity of the .winmd file (see {@link #getWinmdIdentity()}).
+     * The returned metadata can be used by several threads concurrently.
+     * </p>
+     *
+     * @return the loaded metadata
+     */
+    public static Metadata loadShared() {
+        return SharedMetadata.get(String.valueOf(getWinmdIdentity()), MetadataBuilder::load);
+    }
+
+    /**
+     * Gets a string identifying the built-in .winmd file.
+     * <p>
+     * The identity changes if the .winmd file is replaced. It is cheap to compute
+     * as the file is neither read nor parsed.
+     * </p>
+     *
+     * @return the identity, or {@code null} if the .winmd file is missing
+     */
+    public static String getWinmdIdentity() {
+        return MetadataCache.getResourceIdentity(WINMD_RESOURCE);
+    }
+
+    /**
+     * Loads the metadata from the specified .winmd file.
+     * <p>
+     * The file is memory-mapped. If a metadata snapshot for this file exists in the cache directory,
+     * the metadata is restored from the snapshot instead of being built. Otherwise, a snapshot
+     * is written after the metadata has been built.
+     * </p>
+     *
+     * @param winmdFile the path to the .winmd file
+     * @return the loaded metadata
+     */
+    public static Metadata load(Path winmdFile) {
+        var snapshotFile = MetadataCache.getSnapshotFile(winmdFile);
+        if (snapshotFile != null) {
+            var metadata = MetadataCache.readSnapshot(snapshotFile);
+            if (metadata != null)
+                return metadata;
+        }
+
+        var builder = new MetadataBuilder(new MetadataFile(winmdFile));
+        var metadata = builder.build();
+        if (snapshotFile != null)
+            MetadataCache.writeSnapshot(snapshotFile, metadata);
+        return metadata;
+    }
+
     private MetadataBuilder(MetadataFile metadataFile) {
         this.metadataFile = metadataFile;
-        metadata = new Metadata();
+        metadata = new Metadata(metadataFile.getTypeDefinitionCount(), metadataFile.getMethodDefinitionCount());
+        typesByTypeRef = new Type[metadataFile.getTypeReferenceCount() + 1];
+        typeRefNames = new QualifiedName[metadataFile.getTypeReferenceCount() + 1];
         variantTransformation = new VariantTransformation(metadata);
 
         primitiveTypes[ElementTypes.VOID] = metadata.getPrimitive(PrimitiveKind.VOID);
@@ -109,9 +194,10 @@ public class MetadataBuilder implements TypeLookup {
         uintPtrType = metadata.getPrimitive(PrimitiveKind.UINT_PTR);
         voidPointerType = metadata.makePointerFor(primitiveTypes[ElementTypes.VOID]);
 
-        signatureDecoder = new SignatureDecoder(this);
+        signatureDecoder = new SignatureDecoder(this, metadataFile);
         customAttributeDecoder = new CustomAttributeDecoder(this, metadataFile);
         systemGuidType = ((Struct) metadata.getType("System", "Guid"));
+        parallel = Boolean.getBoolean(PARALLEL_BUILD_PROPERTY);
     }
 
     private Metadata build() {
@@ -207,6 +293,8 @@ public class MetadataBuilder implements TypeLookup {
             return;
 
         type.setDocumentationUrl(customAttributesData.documentationUrl);
+        if (type instanceof TypeAlias typeAlias)
+            typeAlias.setHandle(customAttributesData.isHandle);
 
         metadata.addType(type, customAttributesData.supportedArchitecture == ALL);
 
@@ -318,7 +406,7 @@ public class MetadataBuilder implements TypeLookup {
         for (var struct : guidConstants) {
             metadata.removeType(struct, true);
             var constant = new ConstantValue(struct.name(), struct.namespace(), systemGuidType, struct.guid(), false, struct.documentationUrl());
-            struct.namespace().addConstant(constant);
+            metadata.addConstant(constant);
         }
     }
 
@@ -354,28 +442,83 @@ public class MetadataBuilder implements TypeLookup {
      * Builds the method metadata.
      */
     private void buildMethodsAndConstants() {
-        for (var entry : apiTypes.entrySet()) {
-            buildMethods(entry.getKey(), entry.getValue());
-            buildConstants(entry.getKey(), entry.getValue());
+        var apiClasses = List.copyOf(apiTypes.entrySet());
+        var methods = decodeAll(apiClasses, entry -> decodeMethods(entry.getKey(), entry.getValue()));
+        var constants = decodeAll(apiClasses, entry -> decodeConstants(entry.getKey(), entry.getValue()));
+
+        // register in the same order as the sequential build
+        for (int i = 0; i < apiClasses.size(); i += 1) {
+            registerMethods(methods.get(i));
+            constants.get(i).forEach(metadata::addConstant);
         }
     }
 
     /**
-     * Builds the method metadata for the specified type and namespace.
+     * Decodes all items, either sequentially or in parallel.
+     * <p>
+     * In a parallel build, the items are decoded on the common fork-join pool.
+     * The decoder must not register anything in the metadata.
+     * </p>
+     *
+     * @param items   the items to decode
+     * @param decoder the decoding function
+     * @param <T>     the item type
+     * @param <R>     the result type
+     * @return the decoded results, in the same order as the items
+     */
+    private <T, R> List<R> decodeAll(List<T> items, Function<T, R> decoder) {
+        var stream = parallel ? items.parallelStream() : items.stream();
+        return stream.map(decoder).toList();
+    }
+
+    /**
+     * Processes each item, either sequentially or in parallel.
+     * <p>
+     * In a parallel build, the items are processed on the common fork-join pool.
+     * The action may only modify the item itself.
+     * </p>
+     *
+     * @param items  the items to process
+     * @param action the action
+     * @param <T>    the item type
+     */
+    private <T> void processAll(Stream<T> items, Consumer<T> action) {
+        if (parallel)
+            items.toList().parallelStream().forEach(action);
+        else
+            items.forEach(action);
+    }
+
+    /**
+     * Decodes the methods of the specified type and namespace.
+     * <p>
+     * The methods are not registered yet (see {@link #registerMethods(List)}).
+     * </p>
      *
      * @param typeDefIndex    type definition index
      * @param parentNamespace namespace
+     * @return the decoded methods
      */
-    private void buildMethods(int typeDefIndex, Namespace parentNamespace) {
-        createMethods(typeDefIndex, parentNamespace)
-                .forEach(method -> {
+    private List<DecodedMethod> decodeMethods(int typeDefIndex, Namespace parentNamespace) {
+        return createMethods(typeDefIndex, parentNamespace)
+                .map(method -> {
                     var customAttributesData = customAttributeDecoder.getMethodDefAttributes(method.methodDefIndex());
                     method.setConstantValue(customAttributesData.constantValue);
                     method.setDocumentationUrl(customAttributesData.documentationUrl);
+                    return new DecodedMethod(method, customAttributesData.supportedArchitecture);
+                })
+                .toList();
+    }
 
-                    if (!variantTransformation.preprocessMethod(method, customAttributesData.supportedArchitecture))
-                        metadata.addMethod(method);
-                });
+    private void registerMethods(List<DecodedMethod> methods) {
+        for (var decodedMethod : methods) {
+            var method = decodedMethod.method();
+            if (!variantTransformation.preprocessMethod(method, decodedMethod.supportedArchitecture()))
+                metadata.addMethod(method);
+        }
+    }
+
+    private record DecodedMethod(Method method, int supportedArchitecture) {
     }
 
     private static final Set<String> STATIC_INITIALIZER_CONSTANT_TYPES = Set.of(
@@ -387,7 +530,8 @@ public class MetadataBuilder implements TypeLookup {
             "INIT_ONCE"
     );
 
-    private void buildConstants(int typeDefIndex, Namespace namespace) {
+    private List<ConstantValue> decodeConstants(int typeDefIndex, Namespace namespace) {
+        var constants = new ArrayList<ConstantValue>();
         var fields = getFields(typeDefIndex, null, null);
         for (var field : fields) {
             var name = field.name();
@@ -411,8 +555,9 @@ public class MetadataBuilder implements TypeLookup {
                 }
             }
 
-            namespace.addConstant(constant);
+            constants.add(constant);
         }
+        return constants;
     }
 
     private Stream<Method> createMethods(int typeDefIndex, Namespace parentNamespace) {
@@ -427,7 +572,7 @@ public class MetadataBuilder implements TypeLookup {
      * Adds the method parameters to the methods.
      */
     private void buildMethodParameters() {
-        metadata.methods().forEach(this::buildMethodParameters);
+        processAll(metadata.methods(), this::buildMethodParameters);
     }
 
     /**
@@ -451,8 +596,7 @@ public class MetadataBuilder implements TypeLookup {
         }
 
         var methodDef = metadataFile.getMethodDef(method.methodDefIndex());
-        var methodSignature =
-                signatureDecoder.decodeMethodDefSignature(metadataFile.getBlob(methodDef.signature()));
+        var methodSignature = signatureDecoder.getMethodDefSignature(methodDef.signature());
         method.setReturnType(methodSignature.returnType());
 
         var parameters = new Parameter[methodSignature.paramTypes().length];
@@ -478,7 +622,7 @@ public class MetadataBuilder implements TypeLookup {
     }
 
     private void buildDelegateSignatures() {
-        metadata.types().forEach(type -> {
+        processAll(metadata.types(), type -> {
             if (type instanceof Delegate delegate)
                 buildDelegateSignature(delegate);
             if (type instanceof ComInterface comInterface)
@@ -531,14 +675,11 @@ public class MetadataBuilder implements TypeLookup {
     }
 
     private QualifiedName getTypeName(CodedIndex typeDefOrRefIndex) {
-        String namespace = "";
-        String name = "";
         if (typeDefOrRefIndex.table() == TYPE_REF) {
             var typeRef = metadataFile.getTypeRef(typeDefOrRefIndex.index());
             var resolutionScopeIndex = typeRef.resolutionScopeIndex();
             if (resolutionScopeIndex.table() == ASSEMBLY_REF && resolutionScopeIndex.index() == 1) {
-                namespace = metadataFile.getString(typeRef.typeNamespace());
-                name = metadataFile.getString(typeRef.typeName());
+                return getTypeRefName(typeDefOrRefIndex.index(), typeRef);
             } else {
                 assert false : "Unexpected resolution scope for base type reference";
             }
@@ -546,7 +687,7 @@ public class MetadataBuilder implements TypeLookup {
             assert false : "Unexpected table for base type";
         }
 
-        return new QualifiedName(namespace, name);
+        return new QualifiedName("", "");
     }
 
     @Override
@@ -565,19 +706,51 @@ public class MetadataBuilder implements TypeLookup {
         return metadata.getTypeByTypeDefIndex(typeDefIndex);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Type references with a MODULE or ASSEMBLY_REF resolution scope do not depend on the context.
+     * They are resolved once and then looked up by their TypeRef row. Nested type references
+     * (TYPE_REF resolution scope) depend on the context. Only their names are cached.
+     * </p>
+     */
     @Override
     public Type getTypeByTypeRef(int typeRefIndex, Struct parentType, String currentNamespace, boolean externalTypeAllowed) {
+        var type = typesByTypeRef[typeRefIndex];
+        if (type != null) {
+            assert type != voidPointerType || externalTypeAllowed;
+            return type;
+        }
+
         var typeRef = metadataFile.getTypeRef(typeRefIndex);
-        var namespace = metadataFile.getString(typeRef.typeNamespace());
-        var name = metadataFile.getString(typeRef.typeName());
+        var typeName = getTypeRefName(typeRefIndex, typeRef);
         var resolutionScopeIndex = typeRef.resolutionScopeIndex();
+        if (resolutionScopeIndex.table() == TYPE_REF) {
+            if (parentType != null)
+                return parentType.getNestedType(typeName.name());
+            else
+                return metadata.getType(currentNamespace, typeName.name());
+        }
+
+        type = resolveTypeRef(typeName, resolutionScopeIndex, externalTypeAllowed);
+        typesByTypeRef[typeRefIndex] = type;
+        return type;
+    }
+
+    private QualifiedName getTypeRefName(int typeRefIndex, TypeRef typeRef) {
+        var typeName = typeRefNames[typeRefIndex];
+        if (typeName == null) {
+            typeName = new QualifiedName(metadataFile.getString(typeRef.typeNamespace()),
+                    metadataFile.getString(typeRef.typeName()));
+            typeRefNames[typeRefIndex] = typeName;
+        }
+        return typeName;
+    }
+
+    private Type resolveTypeRef(QualifiedName typeName, CodedIndex resolutionScopeIndex, boolean externalTypeAllowed) {
+        var namespace = typeName.namespace();
+        var name = typeName.name();
         return switch (resolutionScopeIndex.table()) {
-            case TYPE_REF -> {
-                if (parentType != null)
-                    yield parentType.getNestedType(name);
-                else
-                    yield metadata.getType(currentNamespace, name);
-            }
             case MODULE -> metadata.getType(namespace, name);
             case ASSEMBLY_REF -> {
                 if (name.equals(systemGuidType.name()) && namespace.equals(systemGuidType.namespace().name())) {
@@ -0,0 +1,224 @@
+//
+// Windows API Generator for Java
+// Copyright (c) 2025 Manuel Bleichenbacher
+// Licensed under MIT License
+// https://opensource.org/licenses/MIT
+//
+package net.codecrete.windowsapi.winmd;
+
+import net.codecrete.windowsapi.metadata.Metadata;
+import net.codecrete.windowsapi.metadata.MetadataSnapshot;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Local file cache for metadata.
+ * <p>
+ * Classpath resources packaged in a JAR file cannot be memory-mapped.
+ * So they are extracted once into the cache directory and mapped from there.
+ * </p>
+ * <p>
+ * Additionally, the cache holds snapshots of the built metadata (see {@link MetadataSnapshot}).
+ * A snapshot is keyed by the hash of the .winmd file, the snapshot format version
+ * and the version of this software. Snapshots are only used if the software version is known,
+ * i.e., if the classes are loaded from a released JAR file. They can be disabled
+ * by setting the system property {@code windowsapi.metadataSnapshot} to {@code false}.
+ * </p>
+ * <p>
+ * The cache directory can be configured with the system property {@code windowsapi.cacheDirectory}.
+ * By default, it is a subdirectory of the temporary directory.
+ * </p>
+ */
+class MetadataCache {
+
+    /**
+     * Name of the system property for configuring the cache directory.
+     */
+    static final String CACHE_DIRECTORY_PROPERTY = "windowsapi.cacheDirectory";
+
+    /**
+     * Name of the system property for enabling or disabling metadata snapshots.
+     */
+    static final String SNAPSHOT_PROPERTY = "windowsapi.metadataSnapshot";
+
+    private MetadataCache() {
+    }
+
+    /**
+     * Gets the cache directory.
+     *
+     * @return the path of the cache directory (might not exist yet)
+     */
+    static Path cacheDirectory() {
+        var directory = System.getProperty(CACHE_DIRECTORY_PROPERTY);
+        if (directory != null && !directory.isBlank())
+            return Path.of(directory);
+        return Path.of(System.getProperty("java.io.tmpdir"), "windows-api-generator");
+    }
+
+    /**
+     * Gets a file with the contents of the specified classpath resource.
+     * <p>
+     * If the resource is a regular file, its path is returned. Otherwise, the resource
+     * is extracted into the cache directory unless an up-to-date copy already exists.
+     * The extracted file name is derived from the resource size and modification time.
+     * </p>
+     *
+     * @param resourceName the resource name
+     * @return the path to the file, or {@code null} if the resource does not exist or cannot be extracted
+     */
+    static Path getResourceFile(String resourceName) {
+        var url = MetadataCache.class.getClassLoader().getResource(resourceName);
+        if (url == null)
+            return null;
+
+        try {
+            if (url.getProtocol().equals("file"))
+                return Path.of(url.toURI());
+
+            var connection = url.openConnection();
+            var size = connection.getContentLengthLong();
+            var lastModified = connection.getLastModified();
+            if (size < 0)
+                return null;
+
+            var baseName = resourceName.substring(resourceName.lastIndexOf('/') + 1);
+            var dot = baseName.lastIndexOf('.');
+            var fileName = String.format("%s-%x-%x%s", baseName.substring(0, dot), size, lastModified,
+                    baseName.substring(dot));
+            var directory = cacheDirectory();
+            var file = directory.resolve(fileName);
+            if (Files.isRegularFile(file) && Files.size(file) == size)
+                return file;
+
+            // extract to a temporary file first so concurrent builds never see a partial file
+            Files.createDirectories(directory);
+            var tempFile = Files.createTempFile(directory, fileName, ".tmp");
+            try {
+                try (var stream = connection.getInputStream()) {
+                    Files.copy(stream, tempFile, StandardCopyOption.REPLACE_EXISTING);
+                }
+                Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // extracted by another process in the meantime
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+            return file;
+
+        } catch (IOException | URISyntaxException | IllegalArgumentException | SecurityException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Gets a string identifying the content of the specified classpath resource.
+     * <p>
+     * The identity is derived from the resource size and modification time.
+     * The resource content is not read.
+     * </p>
+     *
+     * @param resourceName the resource name
+     * @return the identity, or {@code null} if the resource does not exist
+     */
+    static String getResourceIdentity(String resourceName) {
+        var url = MetadataCache.class.getClassLoader().getResource(resourceName);
+        if (url == null)
+            return null;
+
+        try {
+            var connection = url.openConnection();
+            return String.format("%x-%x", connection.getContentLengthLong(), connection.getLastModified());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Gets the path of the metadata snapshot for the specified .winmd file.
+     * <p>
+     * The snapshot file might not exist yet.
+     * </p>
+     *
+     * @param winmdFile the path to the .winmd file
+     * @return the path to the snapshot file, or {@code null} if snapshots are not used
+     */
+    static Path getSnapshotFile(Path winmdFile) {
+        if ("false".equalsIgnoreCase(System.getProperty(SNAPSHOT_PROPERTY)))
+            return null;
+        var generatorVersion = MetadataCache.class.getPackage().getImplementationVersion();
+        if (generatorVersion == null)
+            return null;
+
+        try (var channel = FileChannel.open(winmdFile, StandardOpenOption.READ)) {
+            var digest = MessageDigest.getInstance("SHA-256");
+            digest.update(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            digest.update(generatorVersion.getBytes(StandardCharsets.UTF_8));
+            var hash = HexFormat.of().formatHex(digest.digest(), 0, 16);
+            var fileName = String.format("metadata-%s-v%d.snapshot", hash, MetadataSnapshot.FORMAT_VERSION);
+            return cacheDirectory().resolve(fileName);
+
+        } catch (IOException | NoSuchAlgorithmException | SecurityException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads the metadata from the specified snapshot file.
+     *
+     * @param snapshotFile the path to the snapshot file
+     * @return the metadata, or {@code null} if the snapshot does not exist or cannot be read
+     */
+    static Metadata readSnapshot(Path snapshotFile) {
+        if (!Files.isRegularFile(snapshotFile))
+            return null;
+
+        try (var channel = FileChannel.open(snapshotFile, StandardOpenOption.READ)) {
+            return MetadataSnapshot.read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException | IllegalArgumentException | SecurityException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes a snapshot of the metadata to the specified file.
+     * <p>
+     * Failures are ignored as the snapshot is just an optimization.
+     * </p>
+     *
+     * @param snapshotFile the path to the snapshot file
+     * @param metadata     the metadata
+     */
+    static void writeSnapshot(Path snapshotFile, Metadata metadata) {
+        try {
+            var directory = snapshotFile.getParent();
+            Files.createDirectories(directory);
+            var tempFile = Files.createTempFile(directory, snapshotFile.getFileName().toString(), ".tmp");
+            try {
+                try (var stream = new BufferedOutputStream(Files.newOutputStream(tempFile))) {
+                    MetadataSnapshot.write(metadata, stream);
+                }
+                Files.move(tempFile, snapshotFile, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // written by another process in the meantime
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+
+        } catch (IOException | IllegalStateException | SecurityException e) {
+            // ignore; the snapshot will be written next time
+        }
+    }
+}
@@ -26,10 +26,15 @@ import net.codecrete.windowsapi.winmd.tables.TypeRef;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
 import java.util.Comparator;
-import java.util.Set;
 
 import static net.codecrete.windowsapi.winmd.tables.CodedIndexes.CUSTOM_ATTRIBUTE_TYPE_TABLES;
 import static net.codecrete.windowsapi.winmd.tables.CodedIndexes.HAS_CONSTANT_TABLES;
@@ -93,13 +98,19 @@ import static net.codecrete.windowsapi.winmd.tables.MetadataTables.TYPE_SPEC;
  * This class reads .winmd files and provides access to the different components
  * such as tables, blob and strings.
  * </p>
+ * <p>
+ * The file contents are accessed through a single little-endian byte buffer.
+ * Tables and heaps are views into this buffer. If the file is opened from a path,
+ * the buffer is a memory-mapped file and no data is copied onto the Java heap.
+ * </p>
  */
 public class MetadataFile {
-    private final LittleEndianDataInputStream inputStream;
+    private final ByteBuffer contents;
     private String version;
     private MetadataStream[] streams;
-    private byte[] blobHeap;
-    private byte[] stringHeap;
+    private ByteBuffer blobHeap;
+    private ByteBuffer stringHeap;
+    private final StringCache stringCache = new StringCache();
     private final Table[] tables = new Table[64];
     private Table classLayouts;
     private Table constants;
@@ -119,33 +130,51 @@ public class MetadataFile {
     private int hasConstantIndexWidth;
     private int memberForwardedIndexWidth;
 
-    private static final Set<Integer> USED_TABLES = Set.of(
-            CLASS_LAYOUT,
-            CONSTANT,
-            CUSTOM_ATTRIBUTE,
-            FIELD,
-            FIELD_LAYOUT,
-            IMPL_MAP,
-            INTERFACE_IMPL,
-            MEMBER_REF,
-            METHOD_DEF,
-            MODULE_REF,
-            NESTED_CLASS,
-            PARAM,
-            TYPE_DEF,
-            TYPE_REF
-    );
-
     /**
      * Creates a new instance reading the .winmd contents from the provided input stream.
+     * <p>
+     * The entire stream is read into memory.
+     * </p>
      *
      * @param inputStream input stream providing the .winmd contents
      */
     public MetadataFile(InputStream inputStream) {
-        this.inputStream = new LittleEndianDataInputStream(inputStream);
+        this(readAllBytes(inputStream));
+    }
+
+    /**
+     * Creates a new instance memory-mapping the specified .winmd file.
+     * <p>
+     * The tables and heaps are read directly from the mapped file.
+     * Java provides no way to explicitly release the mapping. It is only released
+     * when this instance and all data derived from it (such as
+     * {@link net.codecrete.windowsapi.metadata.LazyString}) have been garbage collected,
+     * i.e., in practice it remains for the lifetime of the JVM. On Windows, the mapped
+     * file cannot be deleted or replaced as long as it is mapped. So only map files that
+     * are not deleted while the JVM is running, such as the files in the metadata cache.
+     * </p>
+     *
+     * @param path path to the .winmd file
+     */
+    public MetadataFile(Path path) {
+        this(mapFile(path));
+    }
+
+    /**
+     * Creates a new instance reading the .winmd contents from the provided byte buffer.
+     * <p>
+     * The buffer can be a heap buffer, a direct buffer or a memory-mapped file.
+     * Its position, limit and byte order are not modified. The buffer contents
+     * must not be modified while this instance is in use.
+     * </p>
+     *
+     * @param buffer byte buffer with the .winmd contents
+     */
+    public MetadataFile(ByteBuffer buffer) {
+        this.contents = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
         try {
             read();
-        } catch (IOException e) {
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
             throw new WinmdException("Failed to read .winmd file", e);
         }
     }
@@ -175,13 +204,12 @@ public class MetadataFile {
      * @return class layout
      */
     public ClassLayout getClassLayout(int parent) {
-        var index = classLayouts.indexByPrimaryKey(parent, simpleIndexWidth(TYPE_DEF), 6);
+        var index = classLayouts.indexByKeyColumn(parent, 2);
         if (index == 0)
             return null;
 
-        int[] values = new int[3];
-        classLayouts.getRow(index, values);
-        return new ClassLayout(values[0], values[1], values[2]);
+        return new ClassLayout(classLayouts.getValue(index, 0), classLayouts.getValue(index, 1),
+                classLayouts.getValue(index, 2));
     }
 
     /**
@@ -191,12 +219,11 @@ public class MetadataFile {
      * @return constant
      */
     public Constant getConstant(int parent) {
-        var index = constants.indexByPrimaryKey(parent, hasConstantIndexWidth, 2);
+        var index = constants.indexByKeyColumn(parent, 1);
         assert index != 0;
 
-        int[] values = new int[3];
-        constants.getRow(index, values);
-        return new Constant(values[0], values[1], values[2]);
+        return new Constant(constants.getValue(index, 0), constants.getValue(index, 1),
+                constants.getValue(index, 2));
     }
 
     /**
@@ -206,11 +233,12 @@ public class MetadataFile {
      * @return iterable for iterating the "CustomAttribute" rows
      */
     public Iterable<CustomAttribute> getCustomAttributes(int parent) {
-        return new RowKeyTableIterable<>(customAttributes, parent, hasCustomAttributeIndexWidth, index -> {
-            int[] values = new int[3];
-            customAttributes.getRow(index, values);
-            return new CustomAttribute(values[0], values[1], values[2]);
-        });
+        return new RowKeyTableIterable<>(customAttributes, parent, hasCustomAttributeIndexWidth,
+                index -> new CustomAttribute(
+                        customAttributes.getValue(index, 0),
+                        customAttributes.getValue(index, 1),
+                        customAttributes.getValue(index, 2)
+                ));
     }
 
     /**
@@ -228,16 +256,12 @@ public class MetadataFile {
             lastField = fields.numRows();
         assert firstField <= lastField + 1;
 
-        return new TableRangeIterable<>(firstField, lastField, index -> {
-            int[] values = new int[3];
-            fields.getRow(index, values);
-            return new Field(
-                    index,
-                    values[0],
-                    values[1],
-                    values[2]
-            );
-        });
+        return new TableRangeIterable<>(firstField, lastField, index -> new Field(
+                index,
+                fields.getValue(index, 0),
+                fields.getValue(index, 1),
+                fields.getValue(index, 2)
+        ));
     }
 
     /**
@@ -247,13 +271,11 @@ public class MetadataFile {
      * @return field layout
      */
     public FieldLayout getFieldLayout(int field) {
-        var index = fieldLayouts.indexByPrimaryKey(field, simpleIndexWidth(FIELD), 4);
+        var index = fieldLayouts.indexByKeyColumn(field, 1);
         if (index == 0)
             return null;
 
-        int[] values = new int[2];
-        fieldLayouts.getRow(index, values);
-        return new FieldLayout(values[0], values[1]);
+        return new FieldLayout(fieldLayouts.getValue(index, 0), fieldLayouts.getValue(index, 1));
     }
 
     /**
@@ -263,13 +285,12 @@ public class MetadataFile {
      * @return implementation map, or {@code null} if none is found
      */
     public ImplMap getImplMap(int memberForwarded) {
-        var index = implMaps.indexByPrimaryKey(memberForwarded, memberForwardedIndexWidth, 2);
+        var index = implMaps.indexByKeyColumn(memberForwarded, 1);
         if (index == 0)
             return null;
 
-        int[] values = new int[4];
-        implMaps.getRow(index, values);
-        return new ImplMap(values[0], values[1], values[2], values[3]);
+        return new ImplMap(implMaps.getValue(index, 0), implMaps.getValue(index, 1),
+                implMaps.getValue(index, 2), implMaps.getValue(index, 3));
     }
 
     /**
@@ -279,11 +300,8 @@ public class MetadataFile {
      * @return iterable for iterating the "InterfaceImpl" rows
      */
     public Iterable<InterfaceImpl> getInterfaceImpl(int classIndex) {
-        return new RowKeyTableIterable<>(interfaceImpls, classIndex, simpleIndexWidth(TYPE_DEF), index -> {
-            int[] values = new int[2];
-            interfaceImpls.getRow(index, values);
-            return new InterfaceImpl(values[0], values[1]);
-        });
+        return new RowKeyTableIterable<>(interfaceImpls, classIndex, simpleIndexWidth(TYPE_DEF),
+                index -> new InterfaceImpl(interfaceImpls.getValue(index, 0), interfaceImpls.getValue(index, 1)));
     }
 
     /**
@@ -293,12 +311,10 @@ public class MetadataFile {
      * @return member reference
      */
     public MemberRef getMemberRef(int index) {
-        int[] values = new int[3];
-        memberRefs.getRow(index, values);
         return new MemberRef(
-                values[0],
-                values[1],
-                values[2]
+                memberRefs.getValue(index, 0),
+                memberRefs.getValue(index, 1),
+                memberRefs.getValue(index, 2)
         );
     }
 
@@ -309,16 +325,14 @@ public class MetadataFile {
      * @return method definition entry
      */
     public MethodDef getMethodDef(int index) {
-        int[] values = new int[6];
-        methodDefs.getRow(index, values);
         return new MethodDef(
                 index,
-                values[0],
-                values[1],
-                values[2],
-                values[3],
-                values[4],
-                values[5]
+                methodDefs.getValue(index, 0),
+                methodDefs.getValue(index, 1),
+                methodDefs.getValue(index, 2),
+                methodDefs.getValue(index, 3),
+                methodDefs.getValue(index, 4),
+                methodDefs.getValue(index, 5)
         );
     }
 
@@ -347,9 +361,7 @@ public class MetadataFile {
      * @return string index
      */
     public int getModuleRefName(int moduleRef) {
-        int[] values = new int[1];
-        moduleRefs.getRow(moduleRef, values);
-        return values[0];
+        return moduleRefs.getValue(moduleRef, 0);
     }
 
     /**
@@ -359,13 +371,11 @@ public class MetadataFile {
      * @return nested class entry (consisting of nested and enclosing class), or {@code null} if none is found
      */
     public NestedClass getNestedClass(int nestedClass) {
-        var index = nestedClasses.indexByPrimaryKey(nestedClass, simpleIndexWidth(TYPE_DEF), 0);
+        var index = nestedClasses.indexByKeyColumn(nestedClass, 0);
         if (index == 0)
             return null;
 
-        int[] values = new int[2];
-        nestedClasses.getRow(index, values);
-        return new NestedClass(values[0], values[1]);
+        return new NestedClass(nestedClasses.getValue(index, 0), nestedClasses.getValue(index, 1));
     }
 
     /**
@@ -383,16 +393,12 @@ public class MetadataFile {
             lastParam = params.numRows();
         assert firstParam <= lastParam + 1;
 
-        return new TableRangeIterable<>(firstParam, lastParam, index -> {
-            int[] values = new int[3];
-            params.getRow(index, values);
-            return new Param(
-                    index,
-                    values[0],
-                    values[1],
-                    values[2]
-            );
-        });
+        return new TableRangeIterable<>(firstParam, lastParam, index -> new Param(
+                index,
+                params.getValue(index, 0),
+                params.getValue(index, 1),
+                params.getValue(index, 2)
+        ));
     }
 
     /**
@@ -402,15 +408,13 @@ public class MetadataFile {
      * @return the type definition
      */
     public TypeDef getTypeDef(int typeDefIndex) {
-        int[] values = new int[6];
-        typeDefs.getRow(typeDefIndex, values);
         return new TypeDef(
-                values[0],
-                values[1],
-                values[2],
-                values[3],
-                values[4],
-                values[5]
+                typeDefs.getValue(typeDefIndex, 0),
+                typeDefs.getValue(typeDefIndex, 1),
+                typeDefs.getValue(typeDefIndex, 2),
+                typeDefs.getValue(typeDefIndex, 3),
+                typeDefs.getValue(typeDefIndex, 4),
+                typeDefs.getValue(typeDefIndex, 5)
         );
     }
 
@@ -432,6 +436,33 @@ public class MetadataFile {
         return typeDefs.numRows();
     }
 
+    /**
+     * Gets the number of rows in the MethodDef table.
+     *
+     * @return the number of rows
+     */
+    public int getMethodDefinitionCount() {
+        return methodDefs.numRows();
+    }
+
+    /**
+     * Gets the number of rows in the TypeRef table.
+     *
+     * @return the number of rows
+     */
+    public int getTypeReferenceCount() {
+        return typeRefs.numRows();
+    }
+
+    /**
+     * Gets the number of rows in the MemberRef table.
+     *
+     * @return the number of rows
+     */
+    public int getMemberReferenceCount() {
+        return memberRefs.numRows();
+    }
+
     /**
      * Gets the "TypeRef" row for the specified index.
      *
@@ -439,13 +470,14 @@ public class MetadataFile {
      * @return type reference
      */
     public TypeRef getTypeRef(int index) {
-        int[] values = new int[3];
-        typeRefs.getRow(index, values);
-        return new TypeRef(values[0], values[1], values[2]);
+        return new TypeRef(typeRefs.getValue(index, 0), typeRefs.getValue(index, 1), typeRefs.getValue(index, 2));
     }
 
     /**
      * Gets the string with the specified index from the 'string' heap.
+     * <p>
+     * Each string is decoded once. Subsequent calls with the same index return the same instance.
+     * </p>
      *
      * @param index string index
      * @return string
@@ -453,10 +485,16 @@ public class MetadataFile {
     public String getString(int index) {
         if (index == 0)
             return null;
+        return stringCache.computeIfAbsent(index, this::decodeString);
+    }
+
+    private String decodeString(int index) {
         int end = index;
-        while (stringHeap[end] != 0)
+        while (stringHeap.get(end) != 0)
             end += 1;
-        return new String(stringHeap, index, end - index, StandardCharsets.UTF_8);
+        var codeUnits = new byte[end - index];
+        stringHeap.get(index, codeUnits);
+        return new String(codeUnits, StandardCharsets.UTF_8);
     }
 
     /**
@@ -466,17 +504,17 @@ public class MetadataFile {
      * @return blob handle
      */
     public Blob getBlob(int index) {
-        int b1 = blobHeap[index] & 0xff;
+        int b1 = blobHeap.get(index) & 0xff;
         int length;
         if ((b1 & 0x80) == 0x00) {
             length = b1;
             index += 1;
         } else if ((b1 & 0xc0) == 0x80) {
-            length = ((b1 & 0x3f) << 8) + (blobHeap[index + 1] & 0xff);
+            length = ((b1 & 0x3f) << 8) + (blobHeap.get(index + 1) & 0xff);
             index += 2;
         } else if ((b1 & 0xe0) == 0xc0) {
-            length = ((b1 & 0x1f) << 24) + ((blobHeap[index + 1] & 0xff) << 16)
-                    + ((blobHeap[index + 2] & 0xff) << 8) + (blobHeap[index + 3] & 0xff);
+            length = ((b1 & 0x1f) << 24) + ((blobHeap.get(index + 1) & 0xff) << 16)
+                    + ((blobHeap.get(index + 2) & 0xff) << 8) + (blobHeap.get(index + 3) & 0xff);
             index += 4;
         } else {
             throw new WinmdException("Invalid data in blob");
@@ -488,7 +526,7 @@ public class MetadataFile {
     /**
      * Reads the .winmd file
      */
-    private void read() throws IOException {
+    private void read() {
         readPEHeaders();
         readMetadataHeader();
         readStreams();
@@ -497,72 +535,72 @@ public class MetadataFile {
     /**
      * Reads the PE headers up to the start of the metadata header
      */
-    private void readPEHeaders() throws IOException {
+    private void readPEHeaders() {
         // .winmd files are Portable Executable (PE) files
 
         // read magic bytes
         var magicBytes = new byte[2];
-        inputStream.readFully(magicBytes);
+        contents.get(magicBytes);
         if (magicBytes[0] != 'M' || magicBytes[1] != 'Z')
             throw new WinmdException("Invalid data (expected magic bytes \"MZ\")");
 
         // read signature offset
-        inputStream.skipTo(0x3c);
-        var signatureOffset = inputStream.readInt();
+        skipTo(0x3c);
+        var signatureOffset = contents.getInt();
 
         // read signature
-        inputStream.skipTo(signatureOffset);
+        skipTo(signatureOffset);
         magicBytes = new byte[4];
-        inputStream.readFully(magicBytes);
+        contents.get(magicBytes);
         if (magicBytes[0] != 'P' || magicBytes[1] != 'E' || magicBytes[2] != 0 || magicBytes[3] != 0)
             throw new WinmdException("Invalid data (expected magic bytes \"PZ\\0\\0\")");
 
         // read COFF file header
-        inputStream.readUnsignedShort(); // machine
-        var numSections = inputStream.readUnsignedShort();
-        inputStream.readInt(); // time date stamp
-        inputStream.readInt(); // pointer to symbol table
-        inputStream.readInt(); // number of symbols
-        var optionalHeaderSize = inputStream.readUnsignedShort();
-        inputStream.readUnsignedShort(); // characteristics
+        readUnsignedShort(); // machine
+        var numSections = readUnsignedShort();
+        contents.getInt(); // time date stamp
+        contents.getInt(); // pointer to symbol table
+        contents.getInt(); // number of symbols
+        var optionalHeaderSize = readUnsignedShort();
+        readUnsignedShort(); // characteristics
         if (optionalHeaderSize < 2)
             throw new WinmdException("Invalid data (expected optional header)");
 
         // read optional header
-        var magicNumber = inputStream.readUnsignedShort();
+        var magicNumber = readUnsignedShort();
         if (magicNumber != 0x10b)
             throw new WinmdException("Invalid data (expected magic number 0x10b)");
-        inputStream.skipTo(signatureOffset + 24 + 96);
+        skipTo(signatureOffset + 24 + 96);
         // skip to entry 14 (referring to .cormeta section aka CLR runtime header aka metadata section)
-        inputStream.skipNBytes((14 * 8));
-        var clrRuntimeHeaderAddress = inputStream.readInt();
+        skipNBytes((14 * 8));
+        var clrRuntimeHeaderAddress = contents.getInt();
 
         // read sections
-        inputStream.skipTo(signatureOffset + 24 + 96 + 16 * 8);
+        skipTo(signatureOffset + 24 + 96 + 16 * 8);
         var sections = new Section[numSections];
         for (int i = 0; i < numSections; i++) {
-            inputStream.skipNBytes(8);
-            var virtualSize = inputStream.readInt();
-            var virtualAddress = inputStream.readInt();
-            inputStream.skipNBytes(4);
-            var pointerToRawData = inputStream.readInt();
-            inputStream.skipNBytes((40 - 24));
+            skipNBytes(8);
+            var virtualSize = contents.getInt();
+            var virtualAddress = contents.getInt();
+            skipNBytes(4);
+            var pointerToRawData = contents.getInt();
+            skipNBytes((40 - 24));
             sections[i] = new Section(virtualSize, virtualAddress, pointerToRawData);
         }
 
         var clrRuntimeHeaderOffset = getOffset(sections, clrRuntimeHeaderAddress);
-        inputStream.skipTo(clrRuntimeHeaderOffset);
+        skipTo(clrRuntimeHeaderOffset);
 
         // read CLR runtime header
-        int size = inputStream.readInt();
+        int size = contents.getInt();
         if (size != 72)
             throw new WinmdException("Invalid data (unexpected size in CLR runtime header)");
-        inputStream.skipNBytes(4);
-        var metaDataAddress = inputStream.readInt();
+        skipNBytes(4);
+        var metaDataAddress = contents.getInt();
 
         // skip to start of metadata
         var metaDataOffset = getOffset(sections, metaDataAddress);
-        inputStream.skipTo(metaDataOffset);
+        skipTo(metaDataOffset);
     }
 
     /**
@@ -571,30 +609,29 @@ public class MetadataFile {
      * The metadata header includes the version and the stream information.
      * </p>
      *
-     * @throws IOException if an I/O error occurs
      */
-    private void readMetadataHeader() throws IOException {
+    private void readMetadataHeader() {
         // Also see ECMA-335, 6th ed., II.24
 
         // read metadata root
-        var metadataRootOffset = inputStream.getOffset();
-        var magicBytes = inputStream.readInt();
+        var metadataRootOffset = contents.position();
+        var magicBytes = contents.getInt();
         if (magicBytes != 0x424A5342)
             throw new WinmdException("Invalid data (invalid magic bytes in metadata header)");
 
-        inputStream.skipNBytes(8);
-        var versionLength = inputStream.readInt();
+        skipNBytes(8);
+        var versionLength = contents.getInt();
         var versionBytes = new byte[versionLength];
-        inputStream.readFully(versionBytes);
+        contents.get(versionBytes);
         version = createString(versionBytes);
 
         // read stream information
-        inputStream.skipNBytes(2);
-        var numStreams = inputStream.readUnsignedShort();
+        skipNBytes(2);
+        var numStreams = readUnsignedShort();
         streams = new MetadataStream[numStreams];
         for (int i = 0; i < numStreams; i++) {
-            int offset = inputStream.readInt() + (int) metadataRootOffset;
-            int size = inputStream.readInt();
+            int offset = contents.getInt() + metadataRootOffset;
+            int size = contents.getInt();
             var name = readUtf8String();
             streams[i] = new MetadataStream(offset, size, name);
         }
@@ -603,9 +640,9 @@ public class MetadataFile {
         Arrays.sort(streams, Comparator.comparingInt(s -> s.offset));
     }
 
-    private void readStreams() throws IOException {
+    private void readStreams() {
         for (var stream : streams) {
-            inputStream.skipTo(stream.offset);
+            skipTo(stream.offset);
 
             switch (stream.name) {
                 case "#~":
@@ -613,12 +650,10 @@ public class MetadataFile {
                     readTables();
                     break;
                 case "#Strings":
-                    stringHeap = new byte[stream.size];
-                    inputStream.readFully(stringHeap);
+                    stringHeap = readSlice(stream.size);
                     break;
                 case "#Blob":
-                    blobHeap = new byte[stream.size];
-                    inputStream.readFully(blobHeap);
+                    blobHeap = readSlice(stream.size);
                     break;
                 default:
                     // skip
@@ -626,23 +661,23 @@ public class MetadataFile {
         }
     }
 
-    private void readTablesHeader() throws IOException {
-        var headerOffset = (int) inputStream.getOffset();
-        inputStream.skipTo(headerOffset + 6);
-        var heapSizes = inputStream.readByte();
+    private void readTablesHeader() {
+        var headerOffset = contents.position();
+        skipTo(headerOffset + 6);
+        var heapSizes = contents.get();
         int stringIndexWidth = (heapSizes & 1) != 0 ? 4 : 2;
         int guidIndexWidth = (heapSizes & 2) != 0 ? 4 : 2;
         int blobIndexWidth = (heapSizes & 4) != 0 ? 4 : 2;
 
         // available tables in the file
-        inputStream.skipTo(headerOffset + 8);
-        var availableTables = inputStream.readLong();
+        skipTo(headerOffset + 8);
+        var availableTables = contents.getLong();
 
         // number of rows per table
-        inputStream.skipTo(headerOffset + 24);
+        skipTo(headerOffset + 24);
         for (int i = 0; i < 64; i++) {
             if ((availableTables & (1L << i)) != 0)
-                tables[i] = new Table(inputStream.readInt());
+                tables[i] = new Table(contents.getInt());
         }
 
         // compute the length of coded indexes
@@ -717,18 +752,12 @@ public class MetadataFile {
             tables[tableIndex].setColumnWidths(widths);
     }
 
-    private void readTables() throws IOException {
+    private void readTables() {
         for (int i = 0; i < 63; i++) {
             if (tables[i] == null || tables[i].numRows() == 0)
                 continue;
             int tableLength = tables[i].numRows() * tables[i].width();
-            if (USED_TABLES.contains(i)) {
-                var data = new byte[tableLength];
-                inputStream.readFully(data);
-                tables[i].setData(data);
-            } else {
-                inputStream.skipNBytes(tableLength);
-            }
+            tables[i].setData(readSlice(tableLength));
         }
 
         classLayouts = tables[CLASS_LAYOUT];
@@ -768,14 +797,13 @@ public class MetadataFile {
      * </p>
      *
      * @return the string
-     * @throws IOException if an I/O error occurs
      */
-    private String readUtf8String() throws IOException {
+    private String readUtf8String() {
         var utf8Buffer = new ByteArrayOutputStream();
         var fourBytes = new byte[4];
         int length;
         do {
-            inputStream.readFully(fourBytes);
+            contents.get(fourBytes);
             length = 0;
             while (length < 4 && fourBytes[length] != 0)
                 length += 1;
@@ -784,6 +812,46 @@ public class MetadataFile {
         return utf8Buffer.toString(StandardCharsets.UTF_8);
     }
 
+    private void skipTo(int offset) {
+        contents.position(offset);
+    }
+
+    private void skipNBytes(int n) {
+        contents.position(contents.position() + n);
+    }
+
+    private int readUnsignedShort() {
+        return contents.getShort() & 0xffff;
+    }
+
+    /**
+     * Returns a view of the next bytes and advances the position.
+     *
+     * @param length the length of the view, in bytes
+     * @return the view (in little-endian byte order)
+     */
+    private ByteBuffer readSlice(int length) {
+        var slice = contents.slice(contents.position(), length).order(ByteOrder.LITTLE_ENDIAN);
+        skipNBytes(length);
+        return slice;
+    }
+
+    private static ByteBuffer readAllBytes(InputStream inputStream) {
+        try {
+            return ByteBuffer.wrap(inputStream.readAllBytes());
+        } catch (IOException e) {
+            throw new WinmdException("Failed to read .winmd file", e);
+        }
+    }
+
+    private static ByteBuffer mapFile(Path path) {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new WinmdException("Failed to map .winmd file " + path, e);
+        }
+    }
+
     private static int getOffset(Section[] sections, int virtualAddress) {
         for (var section : sections) {
             if (section.virtualAddress <= virtualAddress && virtualAddress < section.virtualAddress + section.virtualSize)
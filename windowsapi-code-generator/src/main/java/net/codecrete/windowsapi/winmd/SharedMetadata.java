@@ -0,0 +1,52 @@
+//
+// Windows API Generator for Java
+// Copyright (c) 2025 Manuel Bleichenbacher
+// Licensed under MIT License
+// https://opensource.org/licenses/MIT
+//
+package net.codecrete.windowsapi.winmd;
+
+import net.codecrete.windowsapi.metadata.Metadata;
+
+import java.lang.ref.SoftReference;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Process-wide cache of loaded metadata.
+ * <p>
+ * The metadata is keyed by the identity of the .winmd file and held in soft references.
+ * So it is shared by all code generation runs in the same JVM (e.g., all modules of a
+ * parallel Maven build) but can be collected by the garbage collector if memory gets scarce.
+ * </p>
+ * <p>
+ * Concurrent requests for the same metadata wait for a single load instead of loading
+ * separate copies.
+ * </p>
+ */
+class SharedMetadata {
+
+    private static final Map<String, SoftReference<Metadata>> cache = new HashMap<>();
+
+    private SharedMetadata() {
+    }
+
+    /**
+     * Gets the cached metadata or loads it if it is not in the cache.
+     *
+     * @param identity the identity of the .winmd file
+     * @param loader   the function loading the metadata
+     * @return the metadata
+     */
+    static synchronized Metadata get(String identity, Supplier<Metadata> loader) {
+        var reference = cache.get(identity);
+        var metadata = reference != null ? reference.get() : null;
+        if (metadata == null) {
+            cache.values().removeIf(it -> it.get() == null);
+            metadata = loader.get();
+            cache.put(identity, new SoftReference<>(metadata));
+        }
+        return metadata;
+    }
+}
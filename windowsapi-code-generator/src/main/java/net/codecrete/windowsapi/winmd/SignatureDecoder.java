@@ -6,20 +6,54 @@
 //
 package net.codecrete.windowsapi.winmd;
 
+import net.codecrete.windowsapi.metadata.Array;
+import net.codecrete.windowsapi.metadata.Pointer;
 import net.codecrete.windowsapi.metadata.Struct;
 import net.codecrete.windowsapi.metadata.Type;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * Decoder for method signatures.
+ * <p>
+ * Identical signatures share the same BLOB. Decoded {@code MethodDef} signatures
+ * are therefore cached by their BLOB index.
+ * </p>
  */
 class SignatureDecoder extends Decoder {
+    private final MetadataFile metadataFile;
+    private final Map<Integer, MethodSignature> methodDefSignatures = new ConcurrentHashMap<>();
+
     /**
      * Creates a new decoder.
      *
-     * @param typeLookup an instance implementing the lookup of types
+     * @param typeLookup   an instance implementing the lookup of types
+     * @param metadataFile the metadata file to retrieve the signature BLOBs
      */
-    SignatureDecoder(TypeLookup typeLookup) {
+    SignatureDecoder(TypeLookup typeLookup, MetadataFile metadataFile) {
         super(typeLookup);
+        this.metadataFile = metadataFile;
+    }
+
+    /**
+     * Gets the decoded {@code MethodDef} signature for the given BLOB index.
+     * <p>
+     * The returned signature is shared. It must not be modified.
+     * </p>
+     *
+     * @param signatureIndex the BLOB index of the signature
+     * @return the decoded signature
+     */
+    MethodSignature getMethodDefSignature(int signatureIndex) {
+        var signature = methodDefSignatures.get(signatureIndex);
+        if (signature == null) {
+            signature = decodeMethodDefSignature(metadataFile.getBlob(signatureIndex));
+            // array types are mutable (see Array#setFlexible), so they must not be shared
+            if (isShareable(signature))
+                methodDefSignatures.put(signatureIndex, signature);
+        }
+        return signature;
     }
 
     /**
@@ -68,4 +102,22 @@ class SignatureDecoder extends Decoder {
         assert signature.isAtEnd();
         return type;
     }
+
+    private static boolean isShareable(MethodSignature signature) {
+        if (!isShareable(signature.returnType()))
+            return false;
+        for (var paramType : signature.paramTypes()) {
+            if (!isShareable(paramType))
+                return false;
+        }
+        return true;
+    }
+
+    private static boolean isShareable(Type type) {
+        return switch (type) {
+            case Array ignored -> false;
+            case Pointer pointer -> isShareable(pointer.referencedType());
+            case null, default -> true;
+        };
+    }
 }
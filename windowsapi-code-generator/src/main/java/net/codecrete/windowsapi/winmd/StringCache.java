@@ -0,0 +1,91 @@
+//
+// Windows API Generator for Java
+// Copyright (c) 2025 Manuel Bleichenbacher
+// Licensed under MIT License
+// https://opensource.org/licenses/MIT
+//
+package net.codecrete.windowsapi.winmd;
+
+import java.util.function.IntFunction;
+
+/**
+ * Cache of decoded strings, keyed by their offset in the string heap.
+ * <p>
+ * The cache consists of open-addressing hash tables with {@code int} keys. It ensures
+ * that each distinct string is decoded once and that a single instance is shared.
+ * </p>
+ * <p>
+ * The cache is thread-safe. The keys are distributed across several segments,
+ * each with its own lock, so parallel metadata building rarely contends.
+ * </p>
+ */
+class StringCache {
+    private static final int NUM_SEGMENTS = 16;
+    private static final int INITIAL_SEGMENT_CAPACITY = 256;
+
+    private final Segment[] segments = new Segment[NUM_SEGMENTS];
+
+    StringCache() {
+        for (int i = 0; i < NUM_SEGMENTS; i += 1)
+            segments[i] = new Segment();
+    }
+
+    /**
+     * Gets the string for the given string heap offset or decodes it if it is not in the cache yet.
+     *
+     * @param offset  the offset (must not be 0)
+     * @param decoder the function decoding the string
+     * @return the string
+     */
+    String computeIfAbsent(int offset, IntFunction<String> decoder) {
+        assert offset != 0;
+        var hash = hash(offset);
+        return segments[hash >>> 28].computeIfAbsent(offset, hash, decoder);
+    }
+
+    private static int hash(int key) {
+        var h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static class Segment {
+        private int[] keys = new int[INITIAL_SEGMENT_CAPACITY];
+        private String[] values = new String[INITIAL_SEGMENT_CAPACITY];
+        private int size;
+
+        synchronized String computeIfAbsent(int offset, int hash, IntFunction<String> decoder) {
+            var mask = keys.length - 1;
+            var slot = hash & mask;
+            while (keys[slot] != 0) {
+                if (keys[slot] == offset)
+                    return values[slot];
+                slot = (slot + 1) & mask;
+            }
+
+            var value = decoder.apply(offset);
+            keys[slot] = offset;
+            values[slot] = value;
+            size += 1;
+            if (size * 2 > keys.length)
+                grow();
+            return value;
+        }
+
+        private void grow() {
+            var oldKeys = keys;
+            var oldValues = values;
+            keys = new int[oldKeys.length * 2];
+            values = new String[oldValues.length * 2];
+            var mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i += 1) {
+                if (oldKeys[i] == 0)
+                    continue;
+                var slot = hash(oldKeys[i]) & mask;
+                while (keys[slot] != 0)
+                    slot = (slot + 1) & mask;
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
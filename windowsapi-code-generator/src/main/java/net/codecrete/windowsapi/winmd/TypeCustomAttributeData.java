@@ -21,6 +21,10 @@ class TypeCustomAttributeData {
      * Indicates that the type is a TypeDef (alias).
      */
     boolean isTypedef = false;
+    /**
+     * Indicates that the type is a handle (has an invalid handle value or a function to free it).
+     */
+    boolean isHandle = false;
     /**
      * Indicates that an enumeration uses values that can be combined as a bitmask to encode multiple flags.
      */
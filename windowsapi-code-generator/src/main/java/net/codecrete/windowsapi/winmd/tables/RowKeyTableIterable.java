@@ -8,7 +8,7 @@ package net.codecrete.windowsapi.winmd.tables;
 
 import java.util.Iterator;
 import java.util.NoSuchElementException;
-import java.util.function.Function;
+import java.util.function.IntFunction;
 
 /**
  * Iterable allowing to iterate a range of rows of a metadata table.
@@ -23,7 +23,7 @@ import java.util.function.Function;
  */
 public class RowKeyTableIterable<T> implements Iterable<T> {
     private final Table table;
-    private final Function<Integer, T> creator;
+    private final IntFunction<T> creator;
     private final int keyValue;
     private final int keyWidth;
 
@@ -35,7 +35,7 @@ public class RowKeyTableIterable<T> implements Iterable<T> {
      * @param keyWidth the width of the key field (in bytes)
      * @param creator  a lambda creating a new table row instance for a given index
      */
-    public RowKeyTableIterable(Table table, int keyValue, int keyWidth, Function<Integer, T> creator) {
+    public RowKeyTableIterable(Table table, int keyValue, int keyWidth, IntFunction<T> creator) {
         this.table = table;
         this.creator = creator;
         this.keyValue = keyValue;
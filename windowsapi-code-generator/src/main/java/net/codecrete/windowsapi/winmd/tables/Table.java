@@ -6,7 +6,7 @@
 //
 package net.codecrete.windowsapi.winmd.tables;
 
-import java.util.stream.IntStream;
+import java.nio.ByteBuffer;
 
 /**
  * Metadata table.
@@ -23,7 +23,8 @@ public class Table {
     private final int numRows;
     private int width; // in bytes
     private int[] columnWidths;
-    private byte[] data;
+    private int[] columnOffsets; // offset of each column from the start of the row, in bytes
+    private ByteBuffer data;
 
     /**
      * Creates a new instance.
@@ -68,15 +69,24 @@ public class Table {
      */
     public void setColumnWidths(int... widths) {
         columnWidths = widths;
-        width = IntStream.of(widths).sum();
+        columnOffsets = new int[widths.length];
+        int offset = 0;
+        for (int i = 0; i < widths.length; i += 1) {
+            columnOffsets[i] = offset;
+            offset += widths[i];
+        }
+        width = offset;
     }
 
     /**
      * Sets the table data.
+     * <p>
+     * The buffer must use little-endian byte order.
+     * </p>
      *
-     * @param data table contents as a byte array
+     * @param data table contents as a byte buffer
      */
-    public void setData(byte[] data) {
+    public void setData(ByteBuffer data) {
         this.data = data;
     }
 
@@ -90,30 +100,42 @@ public class Table {
         assert index > 0 && index <= numRows;
         int offset = (index - 1) * width;
         int numColumns = columnWidths.length;
-        for (int i = 0; i < numColumns; i += 1) {
-            int columnWidth = columnWidths[i];
-            values[i] = getInt(offset, columnWidth);
-            offset += columnWidth;
-        }
+        for (int i = 0; i < numColumns; i += 1)
+            values[i] = getInt(offset + columnOffsets[i], columnWidths[i]);
     }
 
     /**
      * Gets the value of the specified row and column.
+     * <p>
+     * The column offsets are precomputed. So reading a single value does not allocate
+     * any memory and does not depend on the number of columns.
+     * </p>
      *
      * @param rowIndex    row index
-     * @param columnIndex column index
+     * @param columnIndex column index (0-based)
      * @return the value
      */
     public int getValue(int rowIndex, int columnIndex) {
         assert rowIndex > 0 && rowIndex <= numRows;
-        assert columnIndex > 0 && columnIndex <= columnWidths.length;
-        int columnOffset = 0;
-        for (int i = 0; i < columnIndex; i += 1)
-            columnOffset += columnWidths[i];
-        int offset = (rowIndex - 1) * width + columnOffset;
+        assert columnIndex >= 0 && columnIndex < columnWidths.length;
+        int offset = (rowIndex - 1) * width + columnOffsets[columnIndex];
         return getInt(offset, columnWidths[columnIndex]);
     }
 
+    /**
+     * Finds the first index for the specified (primary) key.
+     * <p>
+     * Only works for tables sorted by the key column. See ECMA-335, II.22 Metadata logical format: tables.
+     * </p>
+     *
+     * @param key       the key to search for
+     * @param keyColumn the index of the key column (0-based)
+     * @return the row index, or 0 if the key was not found
+     */
+    public int indexByKeyColumn(int key, int keyColumn) {
+        return indexByPrimaryKey(key, columnWidths[keyColumn], columnOffsets[keyColumn]);
+    }
+
     /**
      * Finds the first index for the specified (primary) key.
      * <p>
@@ -159,17 +181,11 @@ public class Table {
     }
 
     private int getInt16(int offset) {
-        int byte1 = data[offset] & 0xff;
-        int byte2 = data[offset + 1] & 0xff;
-        return byte1 + (byte2 << 8);
+        return data.getShort(offset) & 0xffff;
     }
 
     private int getInt32(int offset) {
-        int byte1 = data[offset] & 0xff;
-        int byte2 = data[offset + 1] & 0xff;
-        int byte3 = data[offset + 2] & 0xff;
-        int byte4 = data[offset + 3] & 0xff;
-        return byte1 + (byte2 << 8) + (byte3 << 16) + (byte4 << 24);
+        return data.getInt(offset);
     }
 
     private int getInt(int offset, int indexLength) {
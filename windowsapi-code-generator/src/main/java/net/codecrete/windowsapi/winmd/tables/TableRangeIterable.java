@@ -8,7 +8,7 @@ package net.codecrete.windowsapi.winmd.tables;
 
 import java.util.Iterator;
 import java.util.NoSuchElementException;
-import java.util.function.Function;
+import java.util.function.IntFunction;
 
 /**
  * Iterable allowing to iterate a range of rows within a metadata table.
@@ -16,7 +16,7 @@ import java.util.function.Function;
  * @param <T> table row type
  */
 public class TableRangeIterable<T> implements Iterable<T> {
-    private final Function<Integer, T> creator;
+    private final IntFunction<T> creator;
     private final int startIndex;
     private final int endIndex;
 
@@ -31,7 +31,7 @@ public class TableRangeIterable<T> implements Iterable<T> {
      * @param endIndex   the index of the range end (inclusive)
      * @param creator    a lambda creating a table row instance for a given index
      */
-    public TableRangeIterable(int startIndex, int endIndex, Function<Integer, T> creator) {
+    public TableRangeIterable(int startIndex, int endIndex, IntFunction<T> creator) {
         this.creator = creator;
         this.startIndex = startIndex;
         this.endIndex = endIndex;
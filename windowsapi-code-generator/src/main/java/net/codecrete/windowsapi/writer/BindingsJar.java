@@ -0,0 +1,264 @@
+//
+// Windows API Generator for Java
+// Copyright (c) 2025 Manuel Bleichenbacher
+// Licensed under MIT License
+// https://opensource.org/licenses/MIT
+//
+package net.codecrete.windowsapi.writer;
+
+import javax.lang.model.SourceVersion;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+
+/**
+ * Compiles generated Java sources in memory and packages them as JAR files.
+ * <p>
+ * The sources are compiled with the system Java compiler, using an in-memory file manager.
+ * Neither the sources nor the class files are written to disk. The JAR files are
+ * reproducible: the entries are sorted and have a fixed timestamp.
+ * </p>
+ * <p>
+ * The class files target the Java release {@link #RELEASE}, independent of the version of the
+ * running JDK. The JDK must support this release.
+ * </p>
+ * <p>
+ * The manifest of the JAR files contains a hash of the generator configuration. It can be
+ * used to determine if an existing JAR file is up-to-date.
+ * </p>
+ */
+public class BindingsJar {
+
+    /**
+     * Name of the manifest attribute containing the configuration hash.
+     */
+    public static final String CONFIGURATION_HASH_ATTRIBUTE = "Windows-Api-Configuration-Hash";
+
+    /**
+     * Java release targeted by the compiled class files.
+     */
+    public static final int RELEASE = 23;
+
+    private static final LocalDateTime ENTRY_TIME = LocalDateTime.of(1980, 2, 1, 0, 0);
+    private static final int MAX_REPORTED_ERRORS = 10;
+
+    private BindingsJar() {
+    }
+
+    /**
+     * Compiles the specified Java sources.
+     *
+     * @param sources map of source paths (relative to the source root) to source code
+     * @return map of class file paths (relative to the class root, with forward slashes) to class file content
+     * @throws GenerationException if no Java compiler is available, the compiler does not support
+     *                             the target release or the compilation fails
+     */
+    public static SortedMap<String, byte[]> compile(Map<Path, ? extends CharSequence> sources) {
+        var compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null)
+            throw new GenerationException("No Java compiler available (a JDK is required to compile the bindings)");
+        if (!isReleaseSupported(compiler))
+            throw new GenerationException(String.format(
+                    "The Java compiler does not support release %d (JDK %d or higher is required to compile the bindings)",
+                    RELEASE, RELEASE));
+
+        var compilationUnits = sources.entrySet().stream()
+                .map(entry -> new SourceFile(toEntryName(entry.getKey()), entry.getValue()))
+                .toList();
+
+        var diagnostics = new DiagnosticCollector<JavaFileObject>();
+        try (var fileManager = new MemoryFileManager(compiler.getStandardFileManager(diagnostics, null,
+                StandardCharsets.UTF_8))) {
+            var options = List.of("--release", Integer.toString(RELEASE), "-proc:none");
+            var task = compiler.getTask(null, fileManager, diagnostics, options, null, compilationUnits);
+            if (!Boolean.TRUE.equals(task.call()))
+                throw new GenerationException("Compilation of generated sources failed:\n" + formatErrors(diagnostics));
+            return fileManager.classFiles;
+
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * Writes a JAR file with the specified entries (usually class files).
+     *
+     * @param jarFile           the path of the JAR file
+     * @param classFiles        map of entry paths (with forward slashes) to entry content
+     * @param configurationHash the configuration hash to store in the manifest
+     */
+    public static void writeJar(Path jarFile, SortedMap<String, byte[]> classFiles, String configurationHash) {
+        var manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().putValue(CONFIGURATION_HASH_ATTRIBUTE, configurationHash);
+
+        try {
+            var directory = jarFile.toAbsolutePath().getParent();
+            if (directory != null)
+                Files.createDirectories(directory);
+
+            try (var out = new JarOutputStream(Files.newOutputStream(jarFile))) {
+                var manifestEntry = new ZipEntry(JarFile.MANIFEST_NAME);
+                manifestEntry.setTimeLocal(ENTRY_TIME);
+                out.putNextEntry(manifestEntry);
+                manifest.write(out);
+                out.closeEntry();
+
+                for (var entry : classFiles.entrySet()) {
+                    var zipEntry = new ZipEntry(entry.getKey());
+                    zipEntry.setTimeLocal(ENTRY_TIME);
+                    out.putNextEntry(zipEntry);
+                    out.write(entry.getValue());
+                    out.closeEntry();
+                }
+            }
+
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Failed to write JAR file " + jarFile, exception);
+        }
+    }
+
+    /**
+     * Writes a JAR file with the specified Java sources.
+     *
+     * @param jarFile           the path of the JAR file
+     * @param sources           map of source paths (relative to the source root) to source code
+     * @param configurationHash the configuration hash to store in the manifest
+     */
+    public static void writeSourcesJar(Path jarFile, Map<Path, ? extends CharSequence> sources,
+                                       String configurationHash) {
+        var entries = sources.entrySet().stream()
+                .collect(Collectors.toMap(
+                        entry -> toEntryName(entry.getKey()),
+                        entry -> entry.getValue().toString().getBytes(StandardCharsets.UTF_8),
+                        (a, b) -> a,
+                        TreeMap::new
+                ));
+        writeJar(jarFile, entries, configurationHash);
+    }
+
+    /**
+     * Reads the configuration hash from the manifest of the specified JAR file.
+     *
+     * @param jarFile the path of the JAR file
+     * @return the configuration hash, or {@code null} if the file does not exist or has no hash
+     */
+    public static String readConfigurationHash(Path jarFile) {
+        try (var jar = new JarFile(jarFile.toFile())) {
+            var manifest = jar.getManifest();
+            return manifest != null ? manifest.getMainAttributes().getValue(CONFIGURATION_HASH_ATTRIBUTE) : null;
+
+        } catch (IOException exception) {
+            // missing or corrupt JAR file
+            return null;
+        }
+    }
+
+    /**
+     * Checks if the system Java compiler is available and supports the target release.
+     *
+     * @return {@code true} if the bindings can be compiled, {@code false} otherwise
+     */
+    static boolean isReleaseSupported() {
+        var compiler = ToolProvider.getSystemJavaCompiler();
+        return compiler != null && isReleaseSupported(compiler);
+    }
+
+    private static boolean isReleaseSupported(JavaCompiler compiler) {
+        // SourceVersion constants for newer releases are missing in older JDKs
+        return compiler.getSourceVersions().stream()
+                .map(SourceVersion::name)
+                .anyMatch(name -> name.equals("RELEASE_" + RELEASE));
+    }
+
+    private static String toEntryName(Path path) {
+        var name = new StringBuilder();
+        for (var element : path) {
+            if (!name.isEmpty())
+                name.append('/');
+            name.append(element);
+        }
+        return name.toString();
+    }
+
+    private static String formatErrors(DiagnosticCollector<JavaFileObject> diagnostics) {
+        return diagnostics.getDiagnostics().stream()
+                .filter(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR)
+                .limit(MAX_REPORTED_ERRORS)
+                .map(diagnostic -> String.format("%s:%d: %s",
+                        diagnostic.getSource() != null ? diagnostic.getSource().getName() : "",
+                        diagnostic.getLineNumber(), diagnostic.getMessage(null)))
+                .collect(Collectors.joining("\n"));
+    }
+
+    /**
+     * Java source file kept in memory.
+     */
+    private static class SourceFile extends SimpleJavaFileObject {
+        private final CharSequence content;
+
+        SourceFile(String entryName, CharSequence content) {
+            super(URI.create("memory:///" + entryName), Kind.SOURCE);
+            this.content = content;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return content;
+        }
+    }
+
+    /**
+     * File manager collecting the class files in memory.
+     */
+    private static class MemoryFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+        private final SortedMap<String, byte[]> classFiles = new TreeMap<>();
+
+        MemoryFileManager(StandardJavaFileManager fileManager) {
+            super(fileManager);
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(JavaFileManager.Location location, String className,
+                                                   JavaFileObject.Kind kind, FileObject sibling) {
+            var entryName = className.replace('.', '/') + kind.extension;
+            return new SimpleJavaFileObject(URI.create("memory:///" + entryName), kind) {
+                @Override
+                public OutputStream openOutputStream() {
+                    return new ByteArrayOutputStream() {
+                        @Override
+                        public void close() {
+                            classFiles.put(entryName, toByteArray());
+                        }
+                    };
+                }
+            };
+        }
+    }
+}
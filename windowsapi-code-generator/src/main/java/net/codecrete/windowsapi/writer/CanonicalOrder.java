@@ -0,0 +1,56 @@
+//
+// Windows API Generator for Java
+// Copyright (c) 2025 Manuel Bleichenbacher
+// Licensed under MIT License
+// https://opensource.org/licenses/MIT
+//
+package net.codecrete.windowsapi.writer;
+
+import net.codecrete.windowsapi.metadata.ConstantValue;
+import net.codecrete.windowsapi.metadata.Method;
+import net.codecrete.windowsapi.metadata.Namespace;
+import net.codecrete.windowsapi.metadata.Type;
+
+import java.util.Comparator;
+
+/**
+ * Canonical order of the generated items.
+ * <p>
+ * Items are ordered by namespace, then by native name, then by name (which includes the architecture
+ * suffix, if any). Generating in this order makes the output reproducible, independent of hash
+ * iteration order.
+ * </p>
+ */
+class CanonicalOrder {
+
+    private CanonicalOrder() {
+    }
+
+    /**
+     * Order of namespaces.
+     */
+    static final Comparator<Namespace> NAMESPACES = Comparator.comparing(Namespace::name);
+
+    /**
+     * Order of types.
+     */
+    static final Comparator<Type> TYPES = Comparator
+            .comparing(Type::namespace, Comparator.nullsFirst(NAMESPACES))
+            .thenComparing(Type::nativeName, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(Type::name, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    /**
+     * Order of functions.
+     */
+    static final Comparator<Method> METHODS = Comparator
+            .comparing(Method::namespace, NAMESPACES)
+            .thenComparing(Method::nativeName)
+            .thenComparing(Method::name);
+
+    /**
+     * Order of constants.
+     */
+    static final Comparator<ConstantValue> CONSTANTS = Comparator
+            .comparing(ConstantValue::namespace, NAMESPACES)
+            .thenComparing(ConstantValue::name);
+}
@@ -14,31 +14,28 @@ import net.codecrete.windowsapi.metadata.Metadata;
 import net.codecrete.windowsapi.metadata.Struct;
 import net.codecrete.windowsapi.metadata.Type;
 
-import java.io.FileWriter;
-import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintWriter;
-import java.io.UncheckedIOException;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 /**
  * Generates Java code for a given scope of types, functions, and constants.
  */
 public class CodeWriter extends JavaCodeWriter<Type> {
 
-    private final Path outputDirectory;
-    private final StructCodeWriter structCodeWriter;
-    private final EnumCodeWriter enumCodeWriter;
-    private final FunctionCodeWriter functionCodeWriter;
-    private final CallbackFunctionCodeWriter callbackFunctionCodeWriter;
-    private final ConstantCodeWriter constantCodeWriter;
-    private final ComInterfaceWriter comInterfaceWriter;
+    private final OutputSink outputSink;
+    private final FileWriters fileWriters;
     private Set<Path> generatedFiles;
     private boolean isDryRun;
+    private int parallelism = 1;
 
     /**
      * Creates a new instance.
@@ -48,43 +45,29 @@ public class CodeWriter extends JavaCodeWriter<Type> {
      * @param eventListener   the event listener to notify about events
      */
     public CodeWriter(Metadata metadata, Path outputDirectory, EventListener eventListener) {
+        this(metadata, new FileSystemSink(outputDirectory), eventListener);
+    }
+
+    /**
+     * Creates a new instance writing the generated files to the specified output sink.
+     *
+     * @param metadata      the metadata
+     * @param outputSink    the output sink
+     * @param eventListener the event listener to notify about events
+     */
+    public CodeWriter(Metadata metadata, OutputSink outputSink, EventListener eventListener) {
         super(new GenerationContext(metadata, eventListener));
         generationContext().setWriterFactory(this::createFileWriter);
 
-        this.outputDirectory = outputDirectory;
-        structCodeWriter = new StructCodeWriter(generationContext());
-        enumCodeWriter = new EnumCodeWriter(generationContext());
-        functionCodeWriter = new FunctionCodeWriter(generationContext());
-        callbackFunctionCodeWriter = new CallbackFunctionCodeWriter(generationContext());
-        constantCodeWriter = new ConstantCodeWriter(generationContext());
-        comInterfaceWriter = new ComInterfaceWriter(generationContext());
+        this.outputSink = outputSink;
+        fileWriters = new FileWriters(generationContext());
         isDryRun = false;
-
-        if (Files.notExists(outputDirectory))
-            throw new IllegalArgumentException("Output directory does not exist: " + outputDirectory);
     }
 
     private PrintWriter createFileWriter(Path path) {
-        var fullPath = outputDirectory.resolve(path);
         if (generatedFiles != null)
             generatedFiles.add(path);
-
-        try {
-            // create the directory if needed
-            var directory = fullPath.getParent().toFile();
-            if (!directory.exists()) {
-                var success = directory.mkdirs();
-                if (!success)
-                    throw new GenerationException("Unable to create directory " + directory);
-            }
-
-            // create the file
-            var file = fullPath.toFile();
-            return new PrintWriter(new FileWriter(file, StandardCharsets.UTF_8));
-
-        } catch (IOException exception) {
-            throw new UncheckedIOException("Failed to write Java file " + path, exception);
-        }
+        return new PrintWriter(new SinkWriter(path, outputSink));
     }
 
     private static PrintWriter createNullWriter(Path path) {
@@ -102,6 +85,20 @@ public class CodeWriter extends JavaCodeWriter<Type> {
         return generatedFiles;
     }
 
+    /**
+     * Gets the manifest of the generated files.
+     * <p>
+     * The manifest contains the paths and content hashes of the generated files.
+     * </p>
+     *
+     * @return the manifest, or {@code null} for dry runs and if the output sink is not a {@link FileSystemSink}
+     */
+    public GenerationManifest getManifest() {
+        if (isDryRun || !(outputSink instanceof FileSystemSink fileSystemSink))
+            return null;
+        return fileSystemSink.getManifest();
+    }
+
     /**
      * Sets the base package.
      * <p>
@@ -115,6 +112,55 @@ public class CodeWriter extends JavaCodeWriter<Type> {
         generationContext().setBasePackage(basePackage);
     }
 
+    /**
+     * Sets the strategy for splitting large {@code Apis} and {@code Constants} classes.
+     * <p>
+     * Initially, the strategy is {@link ShardingStrategy#NONE} and the threshold is
+     * {@link ShardingStrategy#DEFAULT_THRESHOLD}.
+     * </p>
+     *
+     * @param shardingStrategy the sharding strategy
+     * @param shardThreshold   the number of functions or constants above which a class is split
+     */
+    public void setSharding(ShardingStrategy shardingStrategy, int shardThreshold) {
+        if (shardThreshold < 1)
+            throw new IllegalArgumentException("Shard threshold must be positive: " + shardThreshold);
+        generationContext().setSharding(shardingStrategy, shardThreshold);
+    }
+
+    /**
+     * Sets the functions to link as critical functions.
+     * <p>
+     * Critical functions are linked with {@code Linker.Option.critical(true)}, avoiding the
+     * thread state transition. This is only suitable for short, non-blocking functions
+     * that do not call back into Java. Additionally, overloads taking Java primitive arrays
+     * (passed without copying) are generated for them.
+     * </p>
+     * <p>
+     * The names may contain the wildcard {@code *}. Initially, the set is empty.
+     * </p>
+     *
+     * @param criticalFunctions the function names or patterns
+     */
+    public void setCriticalFunctions(Set<String> criticalFunctions) {
+        generationContext().setCriticalFunctions(criticalFunctions);
+    }
+
+    /**
+     * Sets if handles are represented as a Java {@code long} instead of a {@code MemorySegment}.
+     * <p>
+     * Handles are type aliases for pointers marked as handles, e.g., {@code HWND}, {@code HANDLE},
+     * {@code HKEY} or {@code HDC}. If set, they are represented as {@code long} in function signatures,
+     * struct accessors, callback functions and constants. This avoids allocating a memory segment
+     * for each handle. Initially, handles are represented as {@code MemorySegment}.
+     * </p>
+     *
+     * @param handlesAsLong {@code true} for {@code long}, {@code false} for {@code MemorySegment}
+     */
+    public void setHandlesAsLong(boolean handlesAsLong) {
+        generationContext().setHandlesAsLong(handlesAsLong);
+    }
+
     /**
      * Sets if this code writer should execute a dry run without creating files and directories.
      * <p>
@@ -128,6 +174,28 @@ public class CodeWriter extends JavaCodeWriter<Type> {
         generationContext.setWriterFactory(isDryRun ? CodeWriter::createNullWriter : this::createFileWriter);
     }
 
+    /**
+     * Sets the number of threads used to generate the Java files.
+     * <p>
+     * Each Java file is generated by an independent task. With a parallelism of 1 (the default),
+     * the tasks are run one after the other on the calling thread. With a higher value, they
+     * are run on a thread pool with the given number of threads. With a value of 0, each task
+     * is run on a new virtual thread.
+     * </p>
+     * <p>
+     * If the files are generated in parallel, the event listener is still called by a single
+     * thread at a time, and the events of each file are emitted in order. However, the
+     * events of different files can be interleaved.
+     * </p>
+     *
+     * @param parallelism the number of threads (1 for sequential generation, 0 for virtual threads)
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 0)
+            throw new IllegalArgumentException("Parallelism must not be negative: " + parallelism);
+        this.parallelism = parallelism;
+    }
+
     /**
      * Writes the Java code for the specified scope of types, functions, and constants.
      *
@@ -135,10 +203,15 @@ public class CodeWriter extends JavaCodeWriter<Type> {
      */
     public void write(Scope scope) {
         if (!isDryRun)
-            generatedFiles = new HashSet<>();
-        scope.getTransitiveTypeScope().forEach(this::writeType);
-        scope.getFunctions().forEach(functionCodeWriter::writeFunctions);
-        scope.getConstants().forEach(constantCodeWriter::writeConstants);
+            generatedFiles = ConcurrentHashMap.newKeySet();
+
+        var tasks = new ArrayList<Consumer<FileWriters>>();
+        scope.getTransitiveTypeScope().forEach(type -> tasks.add(writers -> writers.writeType(type)));
+        scope.getFunctions().forEach((namespace, functions) ->
+                tasks.add(writers -> writers.functionCodeWriter.writeFunctions(namespace, functions)));
+        scope.getConstants().forEach((namespace, constants) ->
+                tasks.add(writers -> writers.constantCodeWriter.writeConstants(namespace, constants)));
+        run(tasks);
     }
 
     /**
@@ -149,26 +222,97 @@ public class CodeWriter extends JavaCodeWriter<Type> {
      */
     public void writeAll() {
         var metadata = generationContext.metadata();
-        metadata.types().forEach(this::writeType);
+        var tasks = new ArrayList<Consumer<FileWriters>>();
+        metadata.types().sorted(CanonicalOrder.TYPES).forEach(type -> tasks.add(writers -> writers.writeType(type)));
 
-        metadata.namespaces().values().stream()
+        var namespaces = metadata.namespaces().values().stream().sorted(CanonicalOrder.NAMESPACES).toList();
+        namespaces.stream()
                 .filter(n -> !n.methods().isEmpty())
-                .forEach(namespace -> functionCodeWriter.writeFunctions(namespace, namespace.methods().values()));
-
+                .forEach(namespace -> tasks.add(writers ->
+                        writers.functionCodeWriter.writeFunctions(namespace,
+                                namespace.methods().values().stream().sorted(CanonicalOrder.METHODS).toList())));
 
-        metadata.namespaces().values().stream()
+        namespaces.stream()
                 .filter(n -> !n.constants().isEmpty())
-                .forEach(namespace -> constantCodeWriter.writeConstants(namespace, namespace.constants().values()));
+                .forEach(namespace -> tasks.add(writers ->
+                        writers.constantCodeWriter.writeConstants(namespace,
+                                namespace.constants().values().stream().sorted(CanonicalOrder.CONSTANTS).toList())));
+        run(tasks);
     }
 
-    private void writeType(Type type) {
-        switch (type) {
-            case Struct struct when struct.namespace() != null -> structCodeWriter.writeStructOrUnion(struct);
-            case EnumType enumType -> enumCodeWriter.writeEnum(enumType);
-            case Delegate delegate -> callbackFunctionCodeWriter.writeCallbackFunction(delegate);
-            case ComInterface comInterface -> comInterfaceWriter.writeComInterface(comInterface);
-            default -> {
-                // nothing to do
+    /**
+     * Runs the file generation tasks.
+     * <p>
+     * For sequential generation, all tasks share the same set of writers. For parallel generation,
+     * each task gets its own set as the writers keep the state of the current file in instance variables.
+     * </p>
+     *
+     * @param tasks the tasks
+     */
+    private void run(List<Consumer<FileWriters>> tasks) {
+        if (parallelism == 1) {
+            tasks.forEach(task -> task.accept(fileWriters));
+            return;
+        }
+
+        try (var executor = parallelism == 0
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(parallelism)) {
+            var futures = tasks.stream()
+                    .map(task -> executor.submit(() -> task.accept(new FileWriters(generationContext))))
+                    .toList();
+            for (var future : futures)
+                awaitTask(future);
+        }
+    }
+
+    private static void awaitTask(Future<?> future) {
+        try {
+            future.get();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new GenerationException("Code generation has been interrupted");
+        } catch (ExecutionException exception) {
+            switch (exception.getCause()) {
+                case RuntimeException runtimeException -> throw runtimeException;
+                case Error error -> throw error;
+                default -> throw new IllegalStateException(exception.getCause());
+            }
+        }
+    }
+
+    /**
+     * Set of writers for the different kinds of Java files.
+     * <p>
+     * A set of writers can only generate one file at a time.
+     * </p>
+     */
+    private static class FileWriters {
+        private final StructCodeWriter structCodeWriter;
+        private final EnumCodeWriter enumCodeWriter;
+        private final FunctionCodeWriter functionCodeWriter;
+        private final CallbackFunctionCodeWriter callbackFunctionCodeWriter;
+        private final ConstantCodeWriter constantCodeWriter;
+        private final ComInterfaceWriter comInterfaceWriter;
+
+        FileWriters(GenerationContext generationContext) {
+            structCodeWriter = new StructCodeWriter(generationContext);
+            enumCodeWriter = new EnumCodeWriter(generationContext);
+            functionCodeWriter = new FunctionCodeWriter(generationContext);
+            callbackFunctionCodeWriter = new CallbackFunctionCodeWriter(generationContext);
+            constantCodeWriter = new ConstantCodeWriter(generationContext);
+            comInterfaceWriter = new ComInterfaceWriter(generationContext);
+        }
+
+        void writeType(Type type) {
+            switch (type) {
+                case Struct struct when struct.namespace() != null -> structCodeWriter.writeStructOrUnion(struct);
+                case EnumType enumType -> enumCodeWriter.writeEnum(enumType);
+                case Delegate delegate -> callbackFunctionCodeWriter.writeCallbackFunction(delegate);
+                case ComInterface comInterface -> comInterfaceWriter.writeComInterface(comInterface);
+                default -> {
+                    // nothing to do
+                }
             }
         }
     }
@@ -138,7 +138,7 @@ class ComInterfaceWriter extends FunctionCodeWriterBase<ComInterface> {
                 """);
 
         writeCreateGuidMethod(8);
-        writeGuidConstantMemorySegment("IID", type.getIid(), 8);
+        writeGuidConstantMemorySegment("IID", type.getIid(), 8, "private static final ");
 
         writer.print("""
                     }
@@ -420,7 +420,7 @@ class ComInterfaceWriter extends FunctionCodeWriterBase<ComInterface> {
      * @param comInterface the COM interface
      * @return the method name array
      */
-    private static String[] getAllMethodNames(ComInterface comInterface) {
+    private String[] getAllMethodNames(ComInterface comInterface) {
         var methodCount = getNumSuperMethods(comInterface) + comInterface.methods().size();
         var methodNames = new String[methodCount];
         collectMethodNames(comInterface, methodNames);
@@ -440,7 +440,7 @@ class ComInterfaceWriter extends FunctionCodeWriterBase<ComInterface> {
      * @return the number of collected methods
      */
     @SuppressWarnings("java:S3776")
-    private static int collectMethodNames(ComInterface comInterface, String[] methodNames) {
+    private int collectMethodNames(ComInterface comInterface, String[] methodNames) {
         var methods = getAllMethods(comInterface);
 
         int numSuperMethods = 0;
@@ -485,7 +485,7 @@ class ComInterfaceWriter extends FunctionCodeWriterBase<ComInterface> {
      * @param method the method
      * @return signature key
      */
-    private static long getSignatureKey(Method method) {
+    private long getSignatureKey(Method method) {
         var index = (long) method.parameters().length;
         for (var param : method.parameters()) {
             index = (index << 4) | getJavaTypeKey(param.type());
@@ -493,10 +493,11 @@ class ComInterfaceWriter extends FunctionCodeWriterBase<ComInterface> {
         return index;
     }
 
-    private static long getJavaTypeKey(Type type) {
+    private long getJavaTypeKey(Type type) {
         return switch (type) {
             case Primitive primitive -> getPrimitiveJavaTypeIndex(primitive);
             case EnumType enumType -> getPrimitiveJavaTypeIndex(enumType.baseType());
+            case TypeAlias typeAlias when generationContext.isLongHandle(typeAlias) -> 1;
             case TypeAlias typeAlias -> getJavaTypeKey(typeAlias.aliasedType());
             default -> 0;
         };
@@ -15,6 +15,8 @@ import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
@@ -36,19 +38,79 @@ class ConstantCodeWriter extends JavaCodeWriter<Type> {
 
     /**
      * Creates a new file with the Java code for the specified constants.
+     * <p>
+     * If the non-numeric constants are split into shards, the shard classes are written as well,
+     * and the "Constants" class delegates to them.
+     * </p>
      *
      * @param namespace the metadata namespace
      * @param constants the constants
      */
     void writeConstants(Namespace namespace, Collection<ConstantValue> constants) {
-        withFile(namespace, null, "Constants", () -> writeConstantsContent(constants));
+        var shards = generationContext.shardingStrategy().shard(
+                constants.stream().filter(constant -> !(constant.value() instanceof Number)).toList(),
+                ConstantValue::name, null, generationContext.shardThreshold());
+        if (shards == null) {
+            withFile(namespace, null, "Constants", () -> writeConstantsContent(constants));
+            return;
+        }
+
+        var shardClasses = new HashMap<ConstantValue, String>();
+        shards.forEach((suffix, shardConstants) -> {
+            var shardClassName = "Constants_" + suffix;
+            withFile(namespace, null, shardClassName, () -> writeShardContent(shardConstants));
+            shardConstants.forEach(constant -> shardClasses.put(constant, shardClassName));
+        });
+        withFile(namespace, null, "Constants", () -> writeFacadeContent(constants, shardClasses));
     }
 
     void writeConstantsContent(Collection<ConstantValue> constants) {
-        var needsArena = constants.stream().anyMatch(constant -> !(constant.value() instanceof Number));
-        var hasGuids = constants.stream().anyMatch(constant -> constant.value() instanceof UUID);
-        var hasPropertyKeys = constants.stream().anyMatch(ConstantCodeWriter::isPropertyKey);
+        writer.printf("""
+                package %s;
+                
+                import java.lang.foreign.*;
+                
+                /**
+                 * Constants of namespace %s.
+                 */
+                public class Constants {
+                """, packageName, namespace.name());
+
+        writeSegmentHelpers(constants);
+
+        for (var constant : constants) {
+            if (constant.value() instanceof Number) {
+                writeNumericConstant(constant);
+            } else {
+                writeSegmentDefinition(constant, false);
+                writeSegmentAccessor(constant, constant.name() + "$IMPL.SEG");
+            }
+        }
 
+        writer.println("}");
+    }
+
+    private void writeShardContent(Collection<ConstantValue> constants) {
+        writer.printf("""
+                package %s;
+                
+                import java.lang.foreign.*;
+                
+                /**
+                 * Implementation of some constants of namespace %s (see {@code Constants}).
+                 */
+                final class %s {
+                """, packageName, namespace.name(), className);
+
+        writeSegmentHelpers(constants);
+
+        for (var constant : constants)
+            writeSegmentDefinition(constant, true);
+
+        writer.println("}");
+    }
+
+    private void writeFacadeContent(Collection<ConstantValue> constants, Map<ConstantValue, String> shardClasses) {
         writer.printf("""
                 package %s;
                 
@@ -60,6 +122,21 @@ class ConstantCodeWriter extends JavaCodeWriter<Type> {
                 public class Constants {
                 """, packageName, namespace.name());
 
+        for (var constant : constants) {
+            if (constant.value() instanceof Number)
+                writeNumericConstant(constant);
+            else
+                writeSegmentAccessor(constant, shardClasses.get(constant) + "." + constant.name() + "$IMPL.SEG");
+        }
+
+        writer.println("}");
+    }
+
+    private void writeSegmentHelpers(Collection<ConstantValue> constants) {
+        var needsArena = constants.stream().anyMatch(constant -> !(constant.value() instanceof Number));
+        var hasGuids = constants.stream().anyMatch(constant -> constant.value() instanceof UUID);
+        var hasPropertyKeys = constants.stream().anyMatch(ConstantCodeWriter::isPropertyKey);
+
         if (needsArena)
             writer.print("""
                         private static final Arena ARENA = Arena.ofAuto();
@@ -80,37 +157,43 @@ class ConstantCodeWriter extends JavaCodeWriter<Type> {
                         }
                     
                     """);
-
-        for (var constant : constants)
-            writeConstant(constant);
-
-        writer.println("}");
     }
 
     private static final Set<String> POINTER_STRUCT_TYPES = Set.of("CONDITION_VARIABLE", "SRWLOCK", "INIT_ONCE");
 
-    private void writeConstant(ConstantValue constant) {
+    /**
+     * Kind of constant represented by a memory segment.
+     */
+    private enum SegmentKind {
+        STRING,
+        GUID,
+        PROPERTY_KEY,
+        BYTE_ARRAY,
+        UTF16_BYTE_ARRAY,
+        POINTER_STRUCT
+    }
+
+    private static SegmentKind getSegmentKind(ConstantValue constant) {
         var typeName = constant.type().name();
 
-        switch (constant.value()) {
+        return switch (constant.value()) {
             case String ignored -> {
                 if (isPropertyKey(constant)) {
-                    writePropertyKey(constant);
+                    yield SegmentKind.PROPERTY_KEY;
                 } else if (typeName.equals("SID_IDENTIFIER_AUTHORITY")) {
-                    writeByteArrayConstant(constant);
+                    yield SegmentKind.BYTE_ARRAY;
                 } else if (constant.name().equals("GUID_DATABASE_32K_PAGES_OPTIONAL_FEATURE_BYTE")) {
                     // Special case: this constant is defined as a string, but it is actually a byte array
-                    writeUTF16ByteArrayConstant(constant);
+                    yield SegmentKind.UTF16_BYTE_ARRAY;
                 } else if (POINTER_STRUCT_TYPES.contains(typeName)) {
-                    writePointerStruct(constant);
+                    yield SegmentKind.POINTER_STRUCT;
                 } else {
-                    writeStringConstant(constant);
+                    yield SegmentKind.STRING;
                 }
             }
-            case UUID ignored -> writeGuidConstant(constant);
-            case Number ignored -> writeNumericConstant(constant);
+            case UUID ignored -> SegmentKind.GUID;
             default -> throw new AssertionError("Unexpected constant type: " + constant.type());
-        }
+        };
     }
 
     private void writeNumericConstant(ConstantValue constant) {
@@ -128,7 +211,61 @@ class ConstantCodeWriter extends JavaCodeWriter<Type> {
         writer.println();
     }
 
-    private void writeStringConstant(ConstantValue constant) {
+    /**
+     * Writes the holder class with the memory segment of the constant.
+     * <p>
+     * The memory segment is only allocated when the holder class is initialized,
+     * i.e., when the constant is accessed for the first time.
+     * </p>
+     *
+     * @param constant     the constant
+     * @param isAccessible {@code true} if the class and its members are package-private,
+     *                     {@code false} if they are private
+     */
+    private void writeSegmentDefinition(ConstantValue constant, boolean isAccessible) {
+        var initializer = switch (getSegmentKind(constant)) {
+            case STRING -> getStringInitializer(constant);
+            case GUID -> getGuidInitializer((UUID) constant.value());
+            case PROPERTY_KEY -> getPropertyKeyInitializer(constant);
+            case BYTE_ARRAY -> getByteArrayInitializer(parseNumbers(constant.value().toString()));
+            case UTF16_BYTE_ARRAY -> getByteArrayInitializer(constant.value().toString().chars().asLongStream().toArray());
+            case POINTER_STRUCT -> String.format("ARENA.allocateFrom(ValueLayout.JAVA_LONG, %sL)", constant.value());
+        };
+
+        writer.printf("""
+                    %1$sstatic class %2$s$IMPL {
+                        %1$sstatic final MemorySegment SEG = %3$s;
+                    }
+                
+                """, isAccessible ? "" : "private ", constant.name(), initializer);
+    }
+
+    /**
+     * Writes the public static method returning the memory segment of the constant.
+     *
+     * @param constant the constant
+     * @param variable the expression referring to the static variable with the memory segment
+     */
+    private void writeSegmentAccessor(ConstantValue constant, String variable) {
+        switch (getSegmentKind(constant)) {
+            case STRING -> commentWriter.writeConstantComment(writer, constant, "String",
+                    String.format("%s, null-terminated", constant.isAnsiEncoding() ? "ANSI" : "UTF-16"));
+            case GUID -> commentWriter.writeConstantComment(writer, constant, "GUID",
+                    String.format("{@code {%s}}", constant.value()));
+            case PROPERTY_KEY -> commentWriter.writeConstantComment(writer, constant, "Property key", null);
+            case BYTE_ARRAY, UTF16_BYTE_ARRAY -> commentWriter.writeConstantComment(writer, constant, "Binary", null);
+            case POINTER_STRUCT -> commentWriter.writeConstantComment(writer, constant, constant.type().name(), null);
+        }
+
+        writer.printf("""
+                    public static MemorySegment %s() {
+                        return %s;
+                    }
+                
+                """, constant.name(), variable);
+    }
+
+    private static String getStringInitializer(ConstantValue constant) {
         var value = constant.value().toString();
         // FFM does not support Windows-1252 charset.
         // Ensure the string is the same in UTF-8.
@@ -138,33 +275,20 @@ class ConstantCodeWriter extends JavaCodeWriter<Type> {
                 value.getBytes(Charset.forName("windows-1252"))
         ) == 0;
 
-        var stringType = String.format("%s, null-terminated", constant.isAnsiEncoding() ? "ANSI" : "UTF-16");
-        writer.printf("    private static final MemorySegment %s$SEG = ARENA.allocateFrom(\"%s\"%s);%n%n",
-                constant.name(),
+        return String.format("ARENA.allocateFrom(\"%s\"%s)",
                 value
                         .replace("\\", "\\\\")
                         .replace("\n", "\\n")
                         .replace("\r", "\\r"),
                 !constant.isAnsiEncoding() ? ", java.nio.charset.StandardCharsets.UTF_16LE" : ""
         );
-
-        commentWriter.writeConstantComment(writer, constant, "String", stringType);
-        writeMemorySegmentConstant(constant.name());
-    }
-
-    private void writeGuidConstant(ConstantValue constant) {
-        writeGuidConstantMemorySegment(constant.name(), (UUID) constant.value(), 4);
-
-        commentWriter.writeConstantComment(writer, constant, "GUID",
-                String.format("{@code {%s}}", constant.value()));
-        writeMemorySegmentConstant(constant.name());
     }
 
     private static boolean isPropertyKey(ConstantValue constant) {
         return constant.type().name().equals("PROPERTYKEY") || constant.type().name().equals("DEVPROPKEY");
     }
 
-    private void writePropertyKey(ConstantValue constant) {
+    private static String getPropertyKeyInitializer(ConstantValue constant) {
         assert constant.value() instanceof String;
         var numbers = parseNumbers((String) constant.value());
         assert numbers.length == 12;
@@ -180,49 +304,14 @@ class ConstantCodeWriter extends JavaCodeWriter<Type> {
 
         var v3 = numbers[11];
 
-        writer.printf("""
-                    private static final MemorySegment %s$SEG = createPropertyKey(%dL, %dL, %d);
-                
-                """, constant.name(), v1, v2, v3);
-
-        commentWriter.writeConstantComment(writer, constant, "Property key", null);
-        writeMemorySegmentConstant(constant.name());
-    }
-
-    private void writeByteArrayConstant(ConstantValue constant) {
-        var numbers = parseNumbers(constant.value().toString());
-        writeByteArrayConstant(constant, numbers);
-    }
-
-    private void writeUTF16ByteArrayConstant(ConstantValue constant) {
-        // writes a byte array that has been encoded as a UTF-16 string
-        var bytes = constant.value().toString().chars().asLongStream().toArray();
-        writeByteArrayConstant(constant, bytes);
-    }
-
-    private void writeByteArrayConstant(ConstantValue constant, long[] bytes) {
-        writer.printf("    private static final MemorySegment %s$SEG = ARENA.allocateFrom(ValueLayout.JAVA_BYTE",
-                constant.name());
-        for (var b : bytes) {
-            writer.print(", (byte) ");
-            writer.print(b);
-        }
-        writer.println(");");
-        writer.println();
-
-        commentWriter.writeConstantComment(writer, constant, "Binary", null);
-        writeMemorySegmentConstant(constant.name());
+        return String.format("createPropertyKey(%dL, %dL, %d)", v1, v2, v3);
     }
 
-    private void writePointerStruct(ConstantValue constant) {
-        // The struct consists of a single pointer (address).
-        writer.printf("""
-                    private static final MemorySegment %s$SEG = ARENA.allocateFrom(ValueLayout.JAVA_LONG, %sL);
-                
-                """, constant.name(), constant.value());
-
-        commentWriter.writeConstantComment(writer, constant, constant.type().name(), null);
-        writeMemorySegmentConstant(constant.name());
+    private static String getByteArrayInitializer(long[] bytes) {
+        var initializer = new StringBuilder("ARENA.allocateFrom(ValueLayout.JAVA_BYTE");
+        for (var b : bytes)
+            initializer.append(", (byte) ").append(b);
+        return initializer.append(')').toString();
     }
 
     private static long[] parseNumbers(String value) {
@@ -233,13 +322,4 @@ class ConstantCodeWriter extends JavaCodeWriter<Type> {
                 .split(",");
         return Arrays.stream(numbers).map(Long::parseLong).mapToLong(Long::longValue).toArray();
     }
-
-    private void writeMemorySegmentConstant(String name) {
-        writer.printf("""
-                    public static MemorySegment %1$s() {
-                        return %1$s$SEG;
-                    }
-                
-                """, name);
-    }
 }
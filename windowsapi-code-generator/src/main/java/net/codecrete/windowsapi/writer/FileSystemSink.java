@@ -0,0 +1,118 @@
+//
+// Windows API Generator for Java
+// Copyright (c) 2025 Manuel Bleichenbacher
+// Licensed under MIT License
+// https://opensource.org/licenses/MIT
+//
+package net.codecrete.windowsapi.writer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Output sink writing the generated files to a directory.
+ * <p>
+ * A file is only written if its content has changed. The existing file is compared
+ * (first by length, then by content) through the same file channel that is used for writing.
+ * Unchanged files keep their modification time so incremental builds consider them up-to-date.
+ * </p>
+ * <p>
+ * The sink records the paths and content hashes of all files in a {@link GenerationManifest}.
+ * </p>
+ */
+public class FileSystemSink implements OutputSink {
+    private final Path outputDirectory;
+    private final GenerationManifest manifest = new GenerationManifest();
+
+    /**
+     * Creates a new instance.
+     *
+     * @param outputDirectory the output directory (must exist)
+     */
+    public FileSystemSink(Path outputDirectory) {
+        if (Files.notExists(outputDirectory))
+            throw new IllegalArgumentException("Output directory does not exist: " + outputDirectory);
+        this.outputDirectory = outputDirectory;
+    }
+
+    /**
+     * Gets the output directory.
+     *
+     * @return the output directory
+     */
+    public Path getOutputDirectory() {
+        return outputDirectory;
+    }
+
+    /**
+     * Gets the manifest of the files written by this sink.
+     *
+     * @return the manifest
+     */
+    public GenerationManifest getManifest() {
+        return manifest;
+    }
+
+    @Override
+    public void write(Path path, CharSequence content) {
+        var bytes = content.toString().getBytes(StandardCharsets.UTF_8);
+        writeIfChanged(outputDirectory.resolve(path), bytes);
+        manifest.put(path, GenerationManifest.hashOf(bytes));
+    }
+
+    /**
+     * Writes the content to the specified file unless the file already has the identical content.
+     * <p>
+     * Missing parent directories are created.
+     * </p>
+     *
+     * @param path    the file path
+     * @param content the file content
+     * @return {@code true} if the file has been written, {@code false} if it was unchanged
+     */
+    static boolean writeIfChanged(Path path, byte[] content) {
+        try (var channel = openChannel(path)) {
+            if (channel.size() == content.length && hasContent(channel, content))
+                return false;
+
+            var buffer = ByteBuffer.wrap(content);
+            channel.position(0);
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+            channel.truncate(content.length);
+            return true;
+
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Failed to write file " + path, exception);
+        }
+    }
+
+    private static FileChannel openChannel(Path path) throws IOException {
+        try {
+            return FileChannel.open(path, READ, WRITE, CREATE);
+        } catch (NoSuchFileException exception) {
+            // create the missing directories only if needed
+            Files.createDirectories(path.getParent());
+            return FileChannel.open(path, READ, WRITE, CREATE);
+        }
+    }
+
+    private static boolean hasContent(FileChannel channel, byte[] content) throws IOException {
+        var buffer = ByteBuffer.allocate(content.length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0)
+                return false;
+        }
+        return buffer.flip().equals(ByteBuffer.wrap(content));
+    }
+}
@@ -9,11 +9,17 @@ package net.codecrete.windowsapi.writer;
 import net.codecrete.windowsapi.metadata.Method;
 import net.codecrete.windowsapi.metadata.Namespace;
 import net.codecrete.windowsapi.metadata.Pointer;
+import net.codecrete.windowsapi.metadata.Primitive;
+import net.codecrete.windowsapi.metadata.PrimitiveKind;
 import net.codecrete.windowsapi.metadata.Type;
 import net.codecrete.windowsapi.metadata.TypeAlias;
 
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
+import java.util.TreeMap;
 
 /**
  * Creates the Java code for the functions in a given namespace.
@@ -23,6 +29,17 @@ class FunctionCodeWriter extends FunctionCodeWriterBase<Type> {
     private static final String CALL_STATE_NOTE = "The additional first parameter takes a memory segment to capture " +
             "the call state (replacement for {@code GetLastError()}).";
 
+    private static final String THREAD_LOCAL_STATE_NOTE = "The call state is captured in a memory segment " +
+            "reused for all calls on the current thread. Use {@link #lastError()} to get the error code.";
+
+    private static final String ARRAY_NOTE = "The Java arrays are passed to the function without copying. " +
+            "They must not be accessed by other threads during the call.";
+
+    /**
+     * Name of the system property for overriding the directory the DLLs are loaded from.
+     */
+    static final String LIBRARY_PATH_PROPERTY = "windowsapi.libraryPath";
+
     private final CommentWriter commentWriter = new CommentWriter();
 
     /**
@@ -36,23 +53,78 @@ class FunctionCodeWriter extends FunctionCodeWriterBase<Type> {
 
     /**
      * Writes an "Apis" class with the specified functions.
+     * <p>
+     * If the functions are split into shards, the shard classes are written as well,
+     * and the "Apis" class delegates to them.
+     * </p>
      *
+     * @param namespace the namespace
      * @param functions functions to write
      */
     void writeFunctions(Namespace namespace, Collection<Method> functions) {
-        withFile(namespace, null, "Apis", () -> writeFunctionsContent(functions));
+        var shards = generationContext.shardingStrategy().shard(
+                functions.stream().filter(function -> function.dll() != null).toList(),
+                Method::name, Method::dll, generationContext.shardThreshold());
+        if (shards == null) {
+            withFile(namespace, null, "Apis", () -> writeFunctionsContent(functions));
+            return;
+        }
+
+        var shardClasses = new HashMap<Method, String>();
+        shards.forEach((suffix, shardFunctions) -> {
+            var shardClassName = "Apis_" + suffix;
+            withFile(namespace, null, shardClassName, () -> writeShardContent(shardFunctions));
+            shardFunctions.forEach(function -> shardClasses.put(function, shardClassName));
+        });
+        withFile(namespace, null, "Apis", () -> writeFacadeContent(functions, shardClasses));
     }
 
     void writeFunctionsContent(Collection<Method> functions) {
-        writer.printf("""
-                package %s;
+        writePackageAndImports();
+        writeApiComment();
+
+        writer.print("""
+                public class Apis {
                 
-                import java.lang.foreign.*;
-                import java.lang.invoke.MethodHandle;
-                import static java.lang.foreign.ValueLayout.*;
+                """);
+
+        writeStaticState(functions);
+        writeLastErrorAccessor(functions);
+
+        for (var method : functions)
+            writeFunction(method, null);
+
+        writer.println("}");
+    }
+
+    private void writeShardContent(Collection<Method> functions) {
+        writePackageAndImports();
+
+        writer.printf("""
+                /**
+                 * Implementation of some functions of namespace {@code %s} (see {@code Apis}).
+                 */
+                final class %s {
                 
-                """, packageName);
+                """, namespace.name(), className);
+
+        writeStaticState(functions);
+
+        for (var method : functions) {
+            writeFunctionInnerClass(method, true);
+            writer.print("    static ");
+            writeFunctionSignature(method, method.name());
+            writer.println(" {");
+            writeInvoke(method, method.name() + "$IMPL.HANDLE.invokeExact(", 8);
+            writer.println("    }");
+            writer.println();
+        }
 
+        writer.println("}");
+    }
+
+    private void writeFacadeContent(Collection<Method> functions, Map<Method, String> shardClasses) {
+        writePackageAndImports();
         writeApiComment();
 
         writer.print("""
@@ -60,59 +132,127 @@ class FunctionCodeWriter extends FunctionCodeWriterBase<Type> {
                 
                 """);
 
-        writer.print("""
-                static {
-                    var libraryPath = System.getenv("WINDIR") + "\\\\SYSTEM32\\\\";
-            """);
-        functions.stream().map(Method::dll).filter(Objects::nonNull).distinct().sorted().forEach(dll ->
-                writer.printf("""
-                            System.load(libraryPath + "%s.dll");
-                    """, dllName(dll)));
-        writer.print("""
-                }
-            
-            """);
+        writeLastErrorAccessor(functions);
 
-        boolean usesLastError = anyFunctionUsesLastError(functions);
+        for (var method : functions)
+            writeFunction(method, shardClasses.get(method));
+
+        writer.println("}");
+    }
+
+    private void writePackageAndImports() {
+        writer.printf("""
+                package %s;
+                
+                import java.lang.foreign.*;
+                import java.lang.invoke.MethodHandle;
+                import static java.lang.foreign.ValueLayout.*;
+                
+                """, packageName);
+    }
 
+    private void writeStaticState(Collection<Method> functions) {
         writer.print("""
-                    private static final SymbolLookup SYMBOL_LOOKUP = SymbolLookup.loaderLookup();
                     private static final Linker LINKER = Linker.nativeLinker();
                 """);
-        if (usesLastError)
-            writer.print("""
-                        private static final Linker.Option LAST_ERROR_STATE = Linker.Option.captureCallState("GetLastError");
-                    """);
 
         AddressLayout.requiredLayouts(functions).forEach(layoutType ->
                 writeAddressLayoutInitialization(layoutType, "private static final "));
 
         writer.println();
 
-        for (var method : functions)
-            writeFunction(method);
+        // one lazily initialized symbol lookup per DLL
+        var dlls = new TreeMap<String, String>();
+        functions.stream().map(Method::dll).filter(Objects::nonNull)
+                .forEach(dll -> dlls.putIfAbsent(dllHolderClass(dll), dllName(dll)));
+        dlls.forEach((holderClass, dll) -> writer.printf("""
+                    private static class %s {
+                        static final SymbolLookup LOOKUP = libraryLookup("%s");
+                    }
+                
+                """, holderClass, dll));
+
+        if (!dlls.isEmpty())
+            writer.printf("""
+                        private static SymbolLookup libraryLookup(String dll) {
+                            var libraryPath = System.getProperty("%s", System.getenv("WINDIR") + "\\\\SYSTEM32");
+                            return SymbolLookup.libraryLookup(java.nio.file.Path.of(libraryPath, dll + ".dll"), Arena.global());
+                        }
+                    
+                    """, LIBRARY_PATH_PROPERTY);
+
+        // created on demand as the call state is only known on Windows
+        if (anyFunctionUsesLastError(functions))
+            writer.print("""
+                        private static Linker.Option lastErrorState() {
+                            return Linker.Option.captureCallState("GetLastError");
+                        }
+                    
+                    """);
+    }
 
-        writer.println("}");
+    /**
+     * Writes the thread-local call state and the {@code lastError()} accessor.
+     * <p>
+     * They are only written if any of the functions uses {@code GetLastError()}.
+     * </p>
+     *
+     * @param functions the functions
+     */
+    private void writeLastErrorAccessor(Collection<Method> functions) {
+        if (!anyFunctionUsesLastError(functions))
+            return;
+
+        // created on demand as the call state is only known on Windows
+        writer.print("""
+                    private static class LastError$STATE {
+                        static final long OFFSET = Linker.Option.captureStateLayout()
+                                .byteOffset(MemoryLayout.PathElement.groupElement("GetLastError"));
+                        static final ThreadLocal<MemorySegment> SEGMENT = ThreadLocal.withInitial(
+                                () -> Arena.ofAuto().allocate(Linker.Option.captureStateLayout()));
+                    }
+                
+                """);
+
+        writeCommentWithNotes("Gets the error code captured by the last call without call state parameter "
+                        + "(replacement for {@code GetLastError()}).",
+                "The error code is captured per thread and only for the functions of this class. "
+                        + "It is only valid directly after a call that failed.");
+        writer.print("""
+                    public static int lastError() {
+                        return LastError$STATE.SEGMENT.get().get(JAVA_INT, LastError$STATE.OFFSET);
+                    }
+                
+                """);
     }
 
     private boolean anyFunctionUsesLastError(Collection<Method> functions) {
         return functions.stream().anyMatch(Method::supportsLastError);
     }
 
-    private void writeFunction(Method method) {
+    /**
+     * Writes a public function.
+     *
+     * @param method     the function
+     * @param shardClass the name of the shard class implementing the function,
+     *                   or {@code null} if it is implemented in the current class
+     */
+    private void writeFunction(Method method, String shardClass) {
         var isInlined = method.dll() == null;
+        var methodName = method.name();
 
         if (isInlined) {
             assert method.constantValue() != null;
+        } else if (shardClass == null) {
+            writeFunctionInnerClass(method, false);
+            writeFunctionDescriptorAndHandle(method, methodName + "$IMPL");
         } else {
-            writeFunctionInnerClass(method);
-            writeFunctionDescriptorAndHandle(method);
+            writeFunctionDescriptorAndHandle(method, shardClass + "." + methodName + "$IMPL");
         }
 
         // function
         commentWriter.writeFunctionComment(writer, method, "function");
 
-        var methodName = method.name();
         writer.print("    public static ");
         writeFunctionSignature(method, methodName);
         writer.println(" {");
@@ -120,35 +260,156 @@ class FunctionCodeWriter extends FunctionCodeWriterBase<Type> {
         if (isInlined) {
             assert method.constantValue() instanceof String;
             assert method.returnType() instanceof TypeAlias typeAlias && typeAlias.aliasedType() instanceof Pointer;
-            writer.printf("        return MemorySegment.ofAddress(%s);", method.constantValue());
-        } else {
+            if (generationContext.isLongHandle(method.returnType()))
+                writer.printf("        return %sL;", method.constantValue());
+            else
+                writer.printf("        return MemorySegment.ofAddress(%s);", method.constantValue());
+        } else if (shardClass == null) {
             writeInvoke(method, methodName + "$IMPL.HANDLE.invokeExact(", 8);
+        } else {
+            writer.printf("        %s%s.%s(", method.hasReturnType() ? "return " : "", shardClass, methodName);
+            writeArguments(method);
+            writer.println(");");
+        }
+
+        writer.println("    }");
+        writer.println();
+
+        if (!isInlined && method.supportsLastError())
+            writeThreadLocalStateOverload(method);
+        if (!isInlined && generationContext.isCritical(method))
+            writeArrayOverload(method);
+    }
+
+    /**
+     * Writes an overload of a function using {@code GetLastError()} without the call state parameter.
+     * <p>
+     * The overload captures the call state in the thread-local memory segment.
+     * </p>
+     *
+     * @param method the function
+     */
+    private void writeThreadLocalStateOverload(Method method) {
+        var parameters = method.parameters();
+        writeCommentWithNotes(String.format("{@code %s} function (with thread-local call state)", method.nativeName()),
+                THREAD_LOCAL_STATE_NOTE);
+
+        writer.print("    public static ");
+        writeFunctionSignatureIntro(method, method.name());
+        for (int i = 0; i < parameters.length; i += 1) {
+            writer.printf("%s%s %s",
+                    i > 0 ? ", " : "",
+                    getJavaType(parameters[i].type()),
+                    getJavaSafeName(parameters[i].name()));
         }
+        writer.println(") {");
+
+        writer.printf("        %s%s(LastError$STATE.SEGMENT.get()", method.hasReturnType() ? "return " : "",
+                method.name());
+        for (var parameter : parameters)
+            writer.print(", " + getJavaSafeName(parameter.name()));
+        writer.println(");");
+        writer.println("    }");
+        writer.println();
+    }
+
+    /**
+     * Writes an overload of a critical function taking Java arrays instead of memory segments.
+     * <p>
+     * Only parameters pointing to primitive types are replaced. If there are no such parameters,
+     * no overload is written.
+     * </p>
+     *
+     * @param method the function
+     */
+    private void writeArrayOverload(Method method) {
+        var parameters = method.parameters();
+        var arrayTypes = Arrays.stream(parameters).map(parameter -> getArrayType(parameter.type())).toList();
+        if (arrayTypes.stream().allMatch(Objects::isNull))
+            return;
 
+        var supportsLastError = method.supportsLastError();
+        writeCommentWithNotes(String.format("{@code %s} function (with Java arrays)", method.nativeName()),
+                supportsLastError ? CALL_STATE_NOTE : null, ARRAY_NOTE);
+
+        writer.print("    public static ");
+        writeFunctionSignatureIntro(method, method.name());
+        if (supportsLastError)
+            writer.print("MemorySegment lastErrorState");
+        for (int i = 0; i < parameters.length; i += 1) {
+            writer.printf("%s%s %s",
+                    i > 0 || supportsLastError ? ", " : "",
+                    arrayTypes.get(i) != null ? arrayTypes.get(i) : getJavaType(parameters[i].type()),
+                    getJavaSafeName(parameters[i].name()));
+        }
+        writer.println(") {");
+
+        writer.printf("        %s%s(", method.hasReturnType() ? "return " : "", method.name());
+        if (supportsLastError)
+            writer.print("lastErrorState");
+        for (int i = 0; i < parameters.length; i += 1) {
+            var name = getJavaSafeName(parameters[i].name());
+            writer.print(i > 0 || supportsLastError ? ", " : "");
+            writer.print(arrayTypes.get(i) != null ? "MemorySegment.ofArray(" + name + ")" : name);
+        }
+        writer.println(");");
         writer.println("    }");
         writer.println();
     }
 
-    private void writeFunctionInnerClass(Method method) {
+    /**
+     * Gets the Java array type for a parameter pointing to a primitive type.
+     *
+     * @param type the parameter type
+     * @return the array type (e.g., {@code int[]}), or {@code null} if it cannot be passed as a Java array
+     */
+    private String getArrayType(Type type) {
+        if (!(type instanceof Pointer pointer))
+            return null;
+
+        var elementType = pointer.referencedType();
+        while (elementType instanceof TypeAlias typeAlias && !generationContext.isLongHandle(typeAlias))
+            elementType = typeAlias.aliasedType();
+        if (elementType instanceof Primitive primitive
+                && (primitive.kind() == PrimitiveKind.VOID || primitive.kind() == PrimitiveKind.STRING
+                || primitive.kind() == PrimitiveKind.BOOL))
+            return null;
+
+        var javaType = getJavaType(elementType);
+        return javaType.equals("MemorySegment") ? null : javaType + "[]";
+    }
+
+    /**
+     * Writes the inner class holding the function descriptor and method handle.
+     *
+     * @param method       the function
+     * @param isAccessible {@code true} if the class and its members are package-private,
+     *                     {@code false} if they are private
+     */
+    private void writeFunctionInnerClass(Method method, boolean isAccessible) {
         var methodName = method.name();
+        var modifiers = isAccessible ? "" : "private ";
 
         // start of inner class and function descriptor
-        writer.printf("    private static class %s$IMPL {%n", methodName);
-        writer.print("        private static final FunctionDescriptor DESC = ");
+        writer.printf("    %sstatic class %s$IMPL {%n", modifiers, methodName);
+        writer.printf("        %sstatic final FunctionDescriptor DESC = ", modifiers);
         writeFunctionDescriptor(method, null);
         writer.println(";");
 
         // method handle and end of inner class
         writer.printf("""
-                                private static final MethodHandle HANDLE = LINKER.downcallHandle(SYMBOL_LOOKUP.findOrThrow("%s"), DESC%s);
+                                %sstatic final MethodHandle HANDLE = LINKER.downcallHandle(%s.LOOKUP.findOrThrow("%s"), DESC%s%s);
                             }
                         
                         """,
+                modifiers,
+                dllHolderClass(method.dll()),
                 method.nativeName(),
-                method.supportsLastError() ? ", LAST_ERROR_STATE" : "");
+                method.supportsLastError() ? ", lastErrorState()" : "",
+                generationContext.isCritical(method) ? ", Linker.Option.critical(true)" : "");
     }
 
-    private void writeFunctionDescriptorAndHandle(Method method) {
+    private void writeFunctionDescriptorAndHandle(Method method, String implClass) {
         var methodName = method.name();
 
         // descriptor accessor
@@ -156,19 +417,23 @@ class FunctionCodeWriter extends FunctionCodeWriterBase<Type> {
                 method.supportsLastError() ? CALL_STATE_NOTE : null);
         writer.printf("""
                     public static FunctionDescriptor %1$s$descriptor() {
-                        return %1$s$IMPL.DESC;
+                        return %2$s.DESC;
                     }
                 
-                """, methodName);
+                """, methodName, implClass);
 
         // handle accessor
         writeComment("Gets the method handle for {@code %s}", method.nativeName());
         writer.printf("""
                     public static MethodHandle %1$s$handle() {
-                        return %1$s$IMPL.HANDLE;
+                        return %2$s.HANDLE;
                     }
                 
-                """, methodName);
+                """, methodName, implClass);
+    }
+
+    private static String dllHolderClass(String dll) {
+        return ShardingStrategy.toIdentifier(dll) + "$DLL";
     }
 
     private static String dllName(String dll) {
@@ -113,6 +113,22 @@ class FunctionCodeWriterBase<T extends Type> extends JavaCodeWriter<T> {
                 %1$stry {
                 %1$s    %2$s%3$s""", indent, returnWithCast, invoke);
 
+        writeArguments(function);
+        writer.println(");");
+
+        writer.printf("""
+                %1$s} catch (Throwable ex) {
+                %1$s    throw new RuntimeException(ex);
+                %1$s}
+                """, indent);
+    }
+
+    /**
+     * Writes the arguments for calling the Java method of the given function (without parentheses).
+     *
+     * @param function the function
+     */
+    protected void writeArguments(Method function) {
         var supportsLastError = function.supportsLastError();
         if (supportsLastError)
             writer.print("lastErrorState");
@@ -122,12 +138,5 @@ class FunctionCodeWriterBase<T extends Type> extends JavaCodeWriter<T> {
             writer.print(i > 0 || supportsLastError ? ", " : "");
             writer.print(getJavaSafeName(parameters[i].name()));
         }
-        writer.println(");");
-
-        writer.printf("""
-                %1$s} catch (Throwable ex) {
-                %1$s    throw new RuntimeException(ex);
-                %1$s}
-                """, indent);
     }
 }
@@ -9,10 +9,17 @@ package net.codecrete.windowsapi.writer;
 import net.codecrete.windowsapi.events.Event;
 import net.codecrete.windowsapi.events.EventListener;
 import net.codecrete.windowsapi.metadata.Metadata;
+import net.codecrete.windowsapi.metadata.Method;
+import net.codecrete.windowsapi.metadata.Pointer;
+import net.codecrete.windowsapi.metadata.Type;
+import net.codecrete.windowsapi.metadata.TypeAlias;
 
 import java.io.PrintWriter;
 import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
 import java.util.function.Function;
+import java.util.regex.Pattern;
 
 /**
  * Code generation context.
@@ -25,6 +32,10 @@ class GenerationContext {
     protected Function<Path, PrintWriter> writerFactory;
     protected final EventListener eventListener;
     protected String basePackage = "";
+    protected ShardingStrategy shardingStrategy = ShardingStrategy.NONE;
+    protected int shardThreshold = ShardingStrategy.DEFAULT_THRESHOLD;
+    protected List<Pattern> criticalFunctionPatterns = List.of();
+    protected boolean handlesAsLong = false;
 
     /**
      * Creates a new instance.
@@ -48,10 +59,13 @@ class GenerationContext {
 
     /**
      * Notifies the listener about an event.
+     * <p>
+     * The listener is called by a single thread at a time even if files are generated in parallel.
+     * </p>
      *
      * @param event the event
      */
-    void notify(Event event) {
+    synchronized void notify(Event event) {
         eventListener.onEvent(event);
     }
 
@@ -73,6 +87,94 @@ class GenerationContext {
         this.basePackage = basePackage;
     }
 
+    /**
+     * Gets the strategy for splitting large {@code Apis} and {@code Constants} classes.
+     *
+     * @return the sharding strategy
+     */
+    ShardingStrategy shardingStrategy() {
+        return shardingStrategy;
+    }
+
+    /**
+     * Gets the number of members above which {@code Apis} and {@code Constants} classes are split.
+     *
+     * @return the shard threshold
+     */
+    int shardThreshold() {
+        return shardThreshold;
+    }
+
+    /**
+     * Sets the strategy for splitting large {@code Apis} and {@code Constants} classes.
+     *
+     * @param shardingStrategy the sharding strategy
+     * @param shardThreshold   the number of members above which classes are split
+     */
+    void setSharding(ShardingStrategy shardingStrategy, int shardThreshold) {
+        this.shardingStrategy = shardingStrategy;
+        this.shardThreshold = shardThreshold;
+    }
+
+    /**
+     * Checks if the specified function is linked as a critical function.
+     *
+     * @param method the function
+     * @return {@code true} if it is a critical function
+     */
+    boolean isCritical(Method method) {
+        var name = method.nativeName();
+        return criticalFunctionPatterns.stream().anyMatch(pattern -> pattern.matcher(name).matches());
+    }
+
+    /**
+     * Sets the names of the functions to link as critical functions.
+     * <p>
+     * The names may contain the wildcard {@code *}, matching any sequence of characters.
+     * </p>
+     *
+     * @param criticalFunctions the function names or patterns
+     */
+    void setCriticalFunctions(Set<String> criticalFunctions) {
+        criticalFunctionPatterns = criticalFunctions.stream().sorted().map(GenerationContext::globToPattern).toList();
+    }
+
+    private static Pattern globToPattern(String glob) {
+        var regex = new StringBuilder();
+        var parts = glob.split("\\*", -1);
+        for (int i = 0; i < parts.length; i += 1) {
+            if (i > 0)
+                regex.append(".*");
+            if (!parts[i].isEmpty())
+                regex.append(Pattern.quote(parts[i]));
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    /**
+     * Checks if the specified type is a handle represented as a Java {@code long}.
+     * <p>
+     * This is the case if handles are generated as {@code long} and the type is
+     * an alias for a pointer marked as a handle.
+     * </p>
+     *
+     * @param type the type
+     * @return {@code true} if the type is represented as {@code long}
+     */
+    boolean isLongHandle(Type type) {
+        return handlesAsLong && type instanceof TypeAlias typeAlias && typeAlias.isHandle()
+                && typeAlias.aliasedType() instanceof Pointer;
+    }
+
+    /**
+     * Sets if handles are represented as a Java {@code long} instead of a {@code MemorySegment}.
+     *
+     * @param handlesAsLong {@code true} for {@code long}, {@code false} for {@code MemorySegment}
+     */
+    void setHandlesAsLong(boolean handlesAsLong) {
+        this.handlesAsLong = handlesAsLong;
+    }
+
     /**
      * Sets the writer factory.
      * <p>
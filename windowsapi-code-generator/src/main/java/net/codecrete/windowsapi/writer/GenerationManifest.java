@@ -0,0 +1,205 @@
+//
+// Windows API Generator for Java
+// Copyright (c) 2025 Manuel Bleichenbacher
+// Licensed under MIT License
+// https://opensource.org/licenses/MIT
+//
+package net.codecrete.windowsapi.writer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Manifest of the generated files.
+ * <p>
+ * The manifest lists the paths of all generated files (relative to the output directory)
+ * together with a SHA-256 hash of their content. It is saved in the output directory.
+ * On the next run, it is used to find stale files without walking the entire output directory.
+ * </p>
+ * <p>
+ * Optionally, the manifest contains the hash of the configuration used to generate the files.
+ * It allows skipping generation if the configuration has not changed.
+ * </p>
+ */
+public class GenerationManifest {
+
+    /**
+     * Name of the manifest file in the output directory.
+     */
+    public static final String FILE_NAME = ".windowsapi-manifest";
+
+    private static final String CONFIGURATION_PREFIX = "# configuration ";
+
+    private final Map<Path, String> hashes = new TreeMap<>();
+    private String configurationHash;
+
+    /**
+     * Creates a new, empty manifest.
+     */
+    public GenerationManifest() {
+        // empty manifest
+    }
+
+    /**
+     * Reads the manifest from the specified output directory.
+     *
+     * <p>
+     * The manifest is considered invalid if an entry is not a normalized relative path
+     * within the output directory (e.g., if it is absolute or contains {@code ..}).
+     * </p>
+     *
+     * @param outputDirectory the output directory
+     * @return the manifest, or {@code null} if the directory contains no manifest or it is invalid
+     */
+    public static GenerationManifest read(Path outputDirectory) {
+        try {
+            var manifest = new GenerationManifest();
+            for (var line : Files.readAllLines(outputDirectory.resolve(FILE_NAME), StandardCharsets.UTF_8)) {
+                if (line.startsWith(CONFIGURATION_PREFIX)) {
+                    manifest.configurationHash = line.substring(CONFIGURATION_PREFIX.length());
+                    continue;
+                }
+                var separator = line.indexOf(' ');
+                if (separator <= 0)
+                    return null;
+                var elements = line.substring(separator + 1).split("/", -1);
+                if (Arrays.asList(elements).contains(""))
+                    return null; // absolute path or empty element
+                var path = Path.of("", elements);
+                if (!isRelativePathWithin(path))
+                    return null;
+                manifest.put(path, line.substring(0, separator));
+            }
+            return manifest;
+
+        } catch (NoSuchFileException exception) {
+            return null;
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Failed to read manifest in " + outputDirectory, exception);
+        }
+    }
+
+    private static boolean isRelativePathWithin(Path path) {
+        if (path.isAbsolute() || path.getRoot() != null || path.toString().isEmpty() || !path.equals(path.normalize()))
+            return false;
+        for (var element : path) {
+            if (element.toString().equals(".."))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Writes the manifest to the specified output directory.
+     * <p>
+     * If the manifest file already has the same content, it is not modified.
+     * </p>
+     *
+     * @param outputDirectory the output directory
+     */
+    public void write(Path outputDirectory) {
+        var content = new StringBuilder();
+        if (configurationHash != null)
+            content.append(CONFIGURATION_PREFIX).append(configurationHash).append('\n');
+        hashes.forEach((path, hash) -> content.append(hash).append(' ')
+                .append(path.toString().replace(path.getFileSystem().getSeparator(), "/")).append('\n'));
+        FileSystemSink.writeIfChanged(outputDirectory.resolve(FILE_NAME),
+                content.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Adds or replaces the entry for the specified file.
+     * <p>
+     * This method may be called concurrently if files are generated in parallel.
+     * </p>
+     *
+     * @param path the file path (relative to the output directory)
+     * @param hash the content hash
+     */
+    public synchronized void put(Path path, String hash) {
+        hashes.put(path, hash);
+    }
+
+    /**
+     * Gets the hash of the configuration used to generate the files.
+     *
+     * @return the configuration hash, or {@code null} if unknown
+     */
+    public String getConfigurationHash() {
+        return configurationHash;
+    }
+
+    /**
+     * Sets the hash of the configuration used to generate the files.
+     *
+     * @param configurationHash the configuration hash
+     */
+    public void setConfigurationHash(String configurationHash) {
+        this.configurationHash = configurationHash;
+    }
+
+    /**
+     * Gets the paths of all files in this manifest.
+     *
+     * @return set of paths (relative to the output directory)
+     */
+    public Set<Path> paths() {
+        return hashes.keySet();
+    }
+
+    /**
+     * Gets the content hash of the specified file.
+     *
+     * @param path the file path (relative to the output directory)
+     * @return the hash, or {@code null} if the file is not in this manifest
+     */
+    public String hash(Path path) {
+        return hashes.get(path);
+    }
+
+    /**
+     * Checks if the specified file still has the content recorded in this manifest.
+     *
+     * @param outputDirectory the output directory
+     * @param path            the file path (relative to the output directory)
+     * @return {@code true} if the file exists and its content hash matches, {@code false} otherwise
+     */
+    public boolean isUnchanged(Path outputDirectory, Path path) {
+        var hash = hashes.get(path);
+        var file = outputDirectory.resolve(path);
+        if (hash == null || !Files.isRegularFile(file))
+            return false;
+
+        try {
+            return hash.equals(hashOf(Files.readAllBytes(file)));
+        } catch (IOException exception) {
+            // unreadable file
+            return false;
+        }
+    }
+
+    /**
+     * Computes the content hash used by the manifest.
+     *
+     * @param content the file content
+     * @return the SHA-256 hash (as hex string)
+     */
+    public static String hashOf(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+//
+// Windows API Generator for Java
+// Copyright (c) 2025 Manuel Bleichenbacher
+// Licensed under MIT License
+// https://opensource.org/licenses/MIT
+//
+package net.codecrete.windowsapi.writer;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Output sink keeping the generated files in memory.
+ * <p>
+ * It is useful for tools embedding the generator, e.g., annotation processors and tests,
+ * that consume the source code directly.
+ * </p>
+ */
+public class InMemorySink implements OutputSink {
+    private final Map<Path, CharSequence> files = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new instance.
+     */
+    public InMemorySink() {
+        // empty sink
+    }
+
+    @Override
+    public void write(Path path, CharSequence content) {
+        files.put(path, content);
+    }
+
+    /**
+     * Gets the generated files.
+     *
+     * @return unmodifiable map of file paths (relative to the output root) to file content
+     */
+    public Map<Path, CharSequence> getFiles() {
+        return Collections.unmodifiableMap(files);
+    }
+}
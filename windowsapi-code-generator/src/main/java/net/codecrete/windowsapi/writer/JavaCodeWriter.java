@@ -226,16 +226,18 @@ class JavaCodeWriter<T extends Type> {
      * Gets the Java type for the given metadata type.
      * <p>
      * Type aliases are resolved. For enumerations, the base integer type
-     * is used. For non-primitive types, the result will be "MemorySegment".
+     * is used. Handles are represented as "long" if configured.
+     * For other non-primitive types, the result will be "MemorySegment".
      * </p>
      *
      * @param type the metadata type
      * @return the Java type
      */
-    static String getJavaType(Type type) {
+    String getJavaType(Type type) {
         return switch (type) {
             case Primitive primitive -> getPrimitiveJavaType(primitive);
             case EnumType enumType -> getPrimitiveJavaType(enumType.baseType());
+            case TypeAlias typeAlias when generationContext.isLongHandle(typeAlias) -> "long";
             case TypeAlias typeAlias -> getJavaType(typeAlias.aliasedType());
             default -> "MemorySegment";
         };
@@ -317,6 +319,8 @@ class JavaCodeWriter<T extends Type> {
     String getLayoutName(Type type, int packageSize, Namespace currentNamespace) {
         return switch (type) {
             case Primitive primitive -> getPrimitiveLayoutName(primitive, packageSize);
+            case TypeAlias typeAlias when generationContext.isLongHandle(typeAlias) ->
+                    packageSize >= 8 ? "JAVA_LONG" : "JAVA_LONG_UNALIGNED";
             case TypeAlias typeAlias -> getLayoutName(typeAlias.aliasedType(), packageSize, currentNamespace);
             case Pointer pointer -> AddressLayout.getAddressLayout(pointer.referencedType(), packageSize >= 8).name();
             case Delegate ignored -> AddressLayout.pointerToAddress(packageSize >= 8).name();
@@ -420,6 +424,7 @@ class JavaCodeWriter<T extends Type> {
     void writeValue(Type type, Object value) {
         switch (type) {
             case Primitive primitive -> writePrimitiveValue(primitive, value);
+            case TypeAlias typeAlias when generationContext.isLongHandle(typeAlias) -> writer.printf("%sL", value);
             case TypeAlias typeAlias -> writeValue(typeAlias.aliasedType(), value);
             case Pointer ignored -> writePointerValue(value);
             default -> throw new AssertionError("Unexpected type: " + type.name());
@@ -493,13 +498,23 @@ class JavaCodeWriter<T extends Type> {
      * @param name      the variable name
      * @param uuid      the GUID value
      * @param indenting the indenting (number of spaces)
+     * @param modifiers the modifiers of the variable (e.g., {@code "private static final "})
      */
-    void writeGuidConstantMemorySegment(String name, UUID uuid, int indenting) {
+    void writeGuidConstantMemorySegment(String name, UUID uuid, int indenting, String modifiers) {
         writer.printf("""
-                        %2$sprivate static final MemorySegment %1$s$SEG = createGuid(%3$dL, %4$dL);
+                        %2$s%4$sMemorySegment %1$s$SEG = %3$s;
                         
-                        """, name, getIndent(indenting),
-                reorderMostSignificantBits(uuid.getMostSignificantBits()),
+                        """, name, getIndent(indenting), getGuidInitializer(uuid), modifiers);
+    }
+
+    /**
+     * Gets the Java expression creating a memory segment with a GUID.
+     *
+     * @param uuid the GUID value
+     * @return the expression
+     */
+    static String getGuidInitializer(UUID uuid) {
+        return String.format("createGuid(%dL, %dL)", reorderMostSignificantBits(uuid.getMostSignificantBits()),
                 Long.reverseBytes(uuid.getLeastSignificantBits()));
     }
 
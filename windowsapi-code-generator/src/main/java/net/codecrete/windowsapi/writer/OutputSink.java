@@ -0,0 +1,42 @@
+//
+// Windows API Generator for Java
+// Copyright (c) 2025 Manuel Bleichenbacher
+// Licensed under MIT License
+// https://opensource.org/licenses/MIT
+//
+package net.codecrete.windowsapi.writer;
+
+import java.nio.file.Path;
+
+/**
+ * Destination for the generated Java source files.
+ * <p>
+ * The code writer renders each file into memory and passes the complete content to the sink.
+ * Built-in sinks write to a directory ({@link FileSystemSink}), keep the files in memory
+ * ({@link InMemorySink}), or write a single ZIP or JAR file ({@link ZipSink}).
+ * </p>
+ * <p>
+ * Implementations must be thread-safe as files can be generated in parallel.
+ * </p>
+ */
+public interface OutputSink {
+
+    /**
+     * Writes a generated file.
+     *
+     * @param path    the file path (relative to the output root, e.g., {@code windows/win32/foundation/Apis.java})
+     * @param content the file content
+     */
+    void write(Path path, CharSequence content);
+
+    /**
+     * Completes the output.
+     * <p>
+     * This method is called by the owner of the sink after all files have been written.
+     * The default implementation does nothing.
+     * </p>
+     */
+    default void close() {
+        // nothing to complete
+    }
+}
@@ -23,6 +23,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -289,28 +290,43 @@ public class Scope {
 
     /**
      * Gets the types of this transitive scope.
+     * <p>
+     * The types are returned in canonical order.
+     * </p>
      *
      * @return types
      */
-    Set<Type> getTransitiveTypeScope() {
-        return transitiveScope;
+    List<Type> getTransitiveTypeScope() {
+        return transitiveScope.stream().sorted(CanonicalOrder.TYPES).toList();
     }
 
     /**
      * Gets the functions grouped by namespace.
+     * <p>
+     * The namespaces and the functions are returned in canonical order.
+     * </p>
      *
      * @return lists of functions, index by namespace
      */
     Map<Namespace, List<Method>> getFunctions() {
-        return methodSet.stream().collect(Collectors.groupingBy(Method::namespace));
+        return methodSet.stream()
+                .sorted(CanonicalOrder.METHODS)
+                .collect(Collectors.groupingBy(Method::namespace,
+                        () -> new TreeMap<>(CanonicalOrder.NAMESPACES), Collectors.toList()));
     }
 
     /**
      * Gets the constants grouped by namespace.
+     * <p>
+     * The namespaces and the constants are returned in canonical order.
+     * </p>
      *
      * @return lists of constants, indexed by namespace
      */
     Map<Namespace, List<ConstantValue>> getConstants() {
-        return constantSet.stream().collect(Collectors.groupingBy(ConstantValue::namespace));
+        return constantSet.stream()
+                .sorted(CanonicalOrder.CONSTANTS)
+                .collect(Collectors.groupingBy(ConstantValue::namespace,
+                        () -> new TreeMap<>(CanonicalOrder.NAMESPACES), Collectors.toList()));
     }
 }
@@ -0,0 +1,121 @@
+//
+// Windows API Generator for Java
+// Copyright (c) 2025 Manuel Bleichenbacher
+// Licensed under MIT License
+// https://opensource.org/licenses/MIT
+//
+package net.codecrete.windowsapi.writer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Strategy for splitting large {@code Apis} and {@code Constants} classes into several classes (shards).
+ * <p>
+ * If a namespace has more functions or non-numeric constants than the shard threshold, the
+ * implementation is moved to package-private shard classes (e.g., {@code Apis_KERNEL32} or
+ * {@code Constants_1}). The {@code Apis} and {@code Constants} classes remain as facades with
+ * the same public methods and fields, delegating to the shards. So existing code continues to compile.
+ * </p>
+ * <p>
+ * The static initialization (loading DLLs, allocating memory segments) is distributed across the
+ * shards and only happens for the shards that are actually used.
+ * </p>
+ */
+public enum ShardingStrategy {
+    /**
+     * Classes are never split.
+     */
+    NONE,
+    /**
+     * Functions are split by DLL. Constants are split by size.
+     */
+    BY_DLL,
+    /**
+     * Functions and constants are split by the first letter of their name.
+     */
+    ALPHABETICAL,
+    /**
+     * Functions and constants are split into shards with at most the threshold number of members.
+     */
+    BY_SIZE;
+
+    /**
+     * Default number of members above which a class is split.
+     */
+    public static final int DEFAULT_THRESHOLD = 500;
+
+    /**
+     * Splits the members into shards.
+     * <p>
+     * The members are sorted by name within each shard.
+     * </p>
+     *
+     * @param members   the members (functions or constants)
+     * @param nameFunc  function returning the name of a member
+     * @param dllFunc   function returning the DLL of a member (or {@code null} if sharding by DLL is not supported)
+     * @param threshold the number of members above which the members are split
+     * @param <T>       the member type
+     * @return map of shard suffixes to the members of each shard,
+     * or {@code null} if the members should not be split
+     */
+    <T> Map<String, List<T>> shard(Collection<T> members, Function<T, String> nameFunc,
+                                   Function<T, String> dllFunc, int threshold) {
+        if (this == NONE || members.size() <= threshold)
+            return null;
+
+        var sortedMembers = members.stream().sorted(Comparator.comparing(nameFunc)).toList();
+        return switch (this) {
+            case BY_DLL -> dllFunc != null
+                    ? groupBy(sortedMembers, member -> toIdentifier(dllFunc.apply(member)))
+                    : splitBySize(sortedMembers, threshold);
+            case ALPHABETICAL -> groupBy(sortedMembers, member -> firstLetter(nameFunc.apply(member)));
+            case BY_SIZE -> splitBySize(sortedMembers, threshold);
+            case NONE -> throw new AssertionError("unreachable");
+        };
+    }
+
+    private static <T> Map<String, List<T>> groupBy(List<T> members, Function<T, String> keyFunc) {
+        var shards = new TreeMap<String, List<T>>();
+        for (var member : members)
+            shards.computeIfAbsent(keyFunc.apply(member), it -> new ArrayList<>()).add(member);
+        return shards;
+    }
+
+    private static <T> Map<String, List<T>> splitBySize(List<T> members, int threshold) {
+        var shards = new LinkedHashMap<String, List<T>>();
+        for (int i = 0; i < members.size(); i += threshold)
+            shards.put(Integer.toString(shards.size() + 1), members.subList(i, Math.min(i + threshold, members.size())));
+        return shards;
+    }
+
+    private static String firstLetter(String name) {
+        var ch = Character.toUpperCase(name.charAt(0));
+        return ch >= 'A' && ch <= 'Z' ? String.valueOf(ch) : "_";
+    }
+
+    /**
+     * Converts a DLL name into a Java identifier (upper case, without the ".dll" suffix).
+     *
+     * @param dll the DLL name
+     * @return the identifier
+     */
+    static String toIdentifier(String dll) {
+        var name = dll.toUpperCase(Locale.ROOT);
+        if (name.endsWith(".DLL"))
+            name = name.substring(0, name.length() - 4);
+        var identifier = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i += 1) {
+            var ch = name.charAt(i);
+            identifier.append(Character.isLetterOrDigit(ch) ? ch : '_');
+        }
+        return identifier.toString();
+    }
+}
@@ -0,0 +1,55 @@
+//
+// Windows API Generator for Java
+// Copyright (c) 2025 Manuel Bleichenbacher
+// Licensed under MIT License
+// https://opensource.org/licenses/MIT
+//
+package net.codecrete.windowsapi.writer;
+
+import java.io.Writer;
+import java.nio.file.Path;
+
+/**
+ * Writer that collects the content in memory and passes it to the output sink when closed.
+ */
+class SinkWriter extends Writer {
+    private final Path path;
+    private final OutputSink sink;
+    private final StringBuilder content = new StringBuilder(8192);
+    private boolean isClosed;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param path the path of the file to write (relative to the output root)
+     * @param sink the output sink receiving the final file content when the writer is closed
+     */
+    SinkWriter(Path path, OutputSink sink) {
+        this.path = path;
+        this.sink = sink;
+    }
+
+    @Override
+    public void write(char[] buffer, int offset, int length) {
+        content.append(buffer, offset, length);
+    }
+
+    @Override
+    public void write(String str, int offset, int length) {
+        content.append(str, offset, offset + length);
+    }
+
+    @Override
+    public void flush() {
+        // nothing to flush; the content is passed to the sink when closed
+    }
+
+    @Override
+    public void close() {
+        if (isClosed)
+            return;
+        isClosed = true;
+
+        sink.write(path, content.toString());
+    }
+}
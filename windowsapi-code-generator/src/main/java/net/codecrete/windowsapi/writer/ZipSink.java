@@ -0,0 +1,90 @@
+//
+// Windows API Generator for Java
+// Copyright (c) 2025 Manuel Bleichenbacher
+// Licensed under MIT License
+// https://opensource.org/licenses/MIT
+//
+package net.codecrete.windowsapi.writer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributeView;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Output sink writing the generated files into a single ZIP or JAR file.
+ * <p>
+ * The file is written using the ZIP file system provider. An existing file is replaced.
+ * The sink must be closed to complete the file.
+ * </p>
+ * <p>
+ * The file is reproducible: the entries are written in sorted order when the sink is closed,
+ * and they have a fixed timestamp.
+ * </p>
+ */
+public class ZipSink implements OutputSink {
+    private static final FileTime ENTRY_TIME = FileTime.from(Instant.parse("1980-02-01T00:00:00Z"));
+
+    private final Path zipFile;
+    private final FileSystem fileSystem;
+    private final Map<String, CharSequence> entries = new TreeMap<>();
+
+    /**
+     * Creates a new instance.
+     *
+     * @param zipFile the path of the ZIP or JAR file
+     */
+    public ZipSink(Path zipFile) {
+        this.zipFile = zipFile;
+        try {
+            Files.deleteIfExists(zipFile);
+            fileSystem = FileSystems.newFileSystem(zipFile, Map.of("create", "true"));
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Failed to create file " + zipFile, exception);
+        }
+    }
+
+    @Override
+    public synchronized void write(Path path, CharSequence content) {
+        var entryName = new StringBuilder();
+        for (var name : path)
+            entryName.append('/').append(name);
+        entries.put(entryName.toString(), content);
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            for (var entry : entries.entrySet()) {
+                var entryPath = fileSystem.getPath(entry.getKey());
+                createDirectories(entryPath.getParent());
+                Files.writeString(entryPath, entry.getValue(), StandardCharsets.UTF_8);
+                setTimes(entryPath);
+            }
+            entries.clear();
+            fileSystem.close();
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Failed to complete file " + zipFile, exception);
+        }
+    }
+
+    private static void createDirectories(Path directory) throws IOException {
+        if (directory == null || Files.exists(directory))
+            return;
+        createDirectories(directory.getParent());
+        Files.createDirectory(directory);
+        setTimes(directory);
+    }
+
+    private static void setTimes(Path path) throws IOException {
+        Files.getFileAttributeView(path, BasicFileAttributeView.class).setTimes(ENTRY_TIME, ENTRY_TIME, ENTRY_TIME);
+    }
+}
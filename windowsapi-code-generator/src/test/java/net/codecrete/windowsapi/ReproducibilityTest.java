@@ -0,0 +1,93 @@
+//
+// Windows API Generator for Java
+// Copyright (c) 2025 Manuel Bleichenbacher
+// Licensed under MIT License
+// https://opensource.org/licenses/MIT
+//
+package net.codecrete.windowsapi;
+
+import net.codecrete.windowsapi.writer.GenerationManifest;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the generated code does not depend on hash iteration order.
+ * <p>
+ * The code is generated in two separate JVMs (with different identity hash codes)
+ * and the resulting files are compared.
+ * </p>
+ */
+class ReproducibilityTest {
+
+    @Test
+    void generateInSeparateJvms_producesIdenticalFiles() throws IOException, InterruptedException {
+        var temporaryFolder = Files.createTempDirectory("temporary-folder");
+        try {
+            var outputDirectory1 = temporaryFolder.resolve("output1");
+            var outputDirectory2 = temporaryFolder.resolve("output2");
+            generateInSeparateJvm(outputDirectory1);
+            generateInSeparateJvm(outputDirectory2);
+
+            var manifest1 = Files.readString(outputDirectory1.resolve(GenerationManifest.FILE_NAME));
+            var manifest2 = Files.readString(outputDirectory2.resolve(GenerationManifest.FILE_NAME));
+            assertThat(manifest1).isNotEmpty().isEqualTo(manifest2);
+
+        } finally {
+            Testing.deleteDirectory(temporaryFolder);
+        }
+    }
+
+    private static void generateInSeparateJvm(Path outputDirectory) throws IOException, InterruptedException {
+        var java = Path.of(System.getProperty("java.home"), "bin", "java");
+        var process = new ProcessBuilder(java.toString(),
+                "-cp", System.getProperty("java.class.path"),
+                ReproducibilityTest.class.getName(),
+                outputDirectory.toString())
+                .inheritIO()
+                .start();
+        assertThat(process.waitFor(5, TimeUnit.MINUTES)).isTrue();
+        assertThat(process.exitValue()).isZero();
+    }
+
+    /**
+     * Generates code for a fixed configuration.
+     *
+     * @param args the output directory
+     */
+    public static void main(String[] args) {
+        var outputDirectory = Path.of(args[0]);
+        var run = new WindowsApiRun();
+        run.createDirectory(outputDirectory);
+        run.setOutputDirectory(outputDirectory);
+        run.setParallelism(4);
+        run.setFunctions(Set.of(
+                "CreateFileW",
+                "WriteFileEx",
+                "MessageBoxExW",
+                "RegisterClassW",
+                "SetupDiGetClassDevsW",
+                "SetupDiEnumDeviceInterfaces",
+                "SetupDiGetDeviceInterfaceDetailW",
+                "CoInitializeEx"
+        ));
+        run.setStructs(Set.of(
+                "SP_DEVINFO_DATA",
+                "CONTEXT"
+        ));
+        run.setConstants(Set.of(
+                "GUID_DEVINTERFACE_USB_DEVICE",
+                "DEVPKEY_Device_FriendlyName",
+                "HKEY_CURRENT_USER",
+                "KERNEL_LOGGER_NAMEW",
+                "WM_DEVICECHANGE"
+        ));
+        run.generateCode();
+    }
+}
@@ -6,11 +6,16 @@
 //
 package net.codecrete.windowsapi;
 
+import net.codecrete.windowsapi.winmd.MetadataBuilder;
+import net.codecrete.windowsapi.writer.GenerationManifest;
+import net.codecrete.windowsapi.writer.InMemorySink;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -80,4 +85,113 @@ class WindowsApiRunTest {
             Testing.deleteDirectory(temporaryFolder);
         }
     }
+
+    @Test
+    void deleteStaleFiles_usesManifest() throws IOException {
+        var temporaryFolder = Files.createTempDirectory("temporary-folder");
+        try {
+            var outputDirectory = temporaryFolder.resolve("output");
+            var keptPath = Path.of("inner1", "kept.java");
+            var stalePath = Path.of("inner2", "stale.java");
+            var unknownPath = Path.of("inner1", "unknown.java");
+            for (var path : List.of(keptPath, stalePath, unknownPath)) {
+                Files.createDirectories(outputDirectory.resolve(path).getParent());
+                Files.writeString(outputDirectory.resolve(path), "Hello World");
+            }
+
+            var previousManifest = new GenerationManifest();
+            previousManifest.put(keptPath, "1234");
+            previousManifest.put(stalePath, "5678");
+
+            var run = new WindowsApiRun();
+            run.setOutputDirectory(outputDirectory);
+            run.deleteStaleFiles(previousManifest, Set.of(keptPath));
+
+            assertThat(outputDirectory.resolve(keptPath)).exists();
+            assertThat(outputDirectory.resolve(unknownPath)).exists();
+            assertThat(outputDirectory.resolve(stalePath)).doesNotExist();
+            assertThat(outputDirectory.resolve("inner2")).doesNotExist();
+
+        } finally {
+            Testing.deleteDirectory(temporaryFolder);
+        }
+    }
+
+    @Test
+    void deleteStaleFiles_keepsFilesOutsideOutputDirectory() throws IOException {
+        var temporaryFolder = Files.createTempDirectory("temporary-folder");
+        try {
+            var outputDirectory = temporaryFolder.resolve("output");
+            Files.createDirectories(outputDirectory);
+            var outsideFile = temporaryFolder.resolve("outside").resolve("outside.java");
+            Files.createDirectories(outsideFile.getParent());
+            Files.writeString(outsideFile, "Hello World");
+
+            var previousManifest = new GenerationManifest();
+            previousManifest.put(Path.of("..", "outside", "outside.java"), "1234");
+
+            var run = new WindowsApiRun();
+            run.setOutputDirectory(outputDirectory);
+            run.deleteStaleFiles(previousManifest, Set.of());
+
+            assertThat(outsideFile).exists();
+
+        } finally {
+            Testing.deleteDirectory(temporaryFolder);
+        }
+    }
+
+    @Test
+    void isUpToDate_checksConfigurationAndFiles() throws IOException {
+        var temporaryFolder = Files.createTempDirectory("temporary-folder");
+        try {
+            var outputDirectory = temporaryFolder.resolve("output");
+            var path = Path.of("inner1", "generated.java");
+            Files.createDirectories(outputDirectory.resolve(path).getParent());
+            Files.writeString(outputDirectory.resolve(path), "Hello World");
+
+            var run = new WindowsApiRun();
+            run.setOutputDirectory(outputDirectory);
+            run.setFunctions(Set.of("MessageBoxExW"));
+            assertThat(run.isUpToDate()).isFalse();
+
+            var manifest = new GenerationManifest();
+            manifest.put(path, "1234");
+            manifest.setConfigurationHash(run.getConfigurationHash());
+            manifest.write(outputDirectory);
+            assertThat(run.isUpToDate()).isFalse();
+
+            manifest.put(path, GenerationManifest.hashOf("Hello World".getBytes(StandardCharsets.UTF_8)));
+            manifest.write(outputDirectory);
+            assertThat(run.isUpToDate()).isTrue();
+
+            Files.writeString(outputDirectory.resolve(path), "Hello World!");
+            assertThat(run.isUpToDate()).isFalse();
+            Files.writeString(outputDirectory.resolve(path), "Hello World");
+
+            run.setFunctions(Set.of("MessageBoxExW", "WriteFileEx"));
+            assertThat(run.isUpToDate()).isFalse();
+
+            run.setFunctions(Set.of("MessageBoxExW"));
+            Files.delete(outputDirectory.resolve(path));
+            assertThat(run.isUpToDate()).isFalse();
+
+        } finally {
+            Testing.deleteDirectory(temporaryFolder);
+        }
+    }
+
+    @Test
+    void generateCode_withPreloadedMetadata_succeeds() {
+        var metadata = MetadataBuilder.load();
+        var sink = new InMemorySink();
+        var run = new WindowsApiRun();
+        run.setMetadata(metadata);
+        run.setOutputSink(sink);
+        run.setFunctions(Set.of("MessageBoxExW"));
+        run.generateCode();
+
+        assertThat(run.getMetadata()).isSameAs(metadata);
+        assertThat(sink.getFiles()).isNotEmpty();
+    }
 }
@@ -0,0 +1,86 @@
+//
+// Windows API Generator for Java
+// Copyright (c) 2025 Manuel Bleichenbacher
+// Licensed under MIT License
+// https://opensource.org/licenses/MIT
+//
+package net.codecrete.windowsapi.metadata;
+
+import net.codecrete.windowsapi.winmd.MetadataBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.groups.Tuple.tuple;
+
+class MetadataSnapshotTest {
+
+    private final Metadata metadata = MetadataBuilder.load();
+
+    @Test
+    void snapshot_restoresTypesMethodsAndConstants() throws IOException {
+        var restored = roundTrip(metadata);
+
+        assertThat(restored.namespaces()).hasSameSizeAs(metadata.namespaces());
+        assertThat(restored.types().map(Type::name))
+                .containsExactlyInAnyOrderElementsOf(metadata.types().map(Type::name).toList());
+        assertThat(restored.methods().map(Method::name))
+                .containsExactlyInAnyOrderElementsOf(metadata.methods().map(Method::name).toList());
+        assertThat(restored.constants().map(ConstantValue::name))
+                .containsExactlyInAnyOrderElementsOf(metadata.constants().map(ConstantValue::name).toList());
+    }
+
+    @Test
+    void snapshot_restoresStructLayout() throws IOException {
+        var restored = roundTrip(metadata);
+
+        var original = (Struct) metadata.getType("Windows.Win32.UI.WindowsAndMessaging", "MSG");
+        var struct = (Struct) restored.getType("Windows.Win32.UI.WindowsAndMessaging", "MSG");
+        assertThat(struct.isLayoutDone()).isTrue();
+        assertThat(struct.structSize()).isEqualTo(original.structSize());
+        assertThat(struct.packageSize()).isEqualTo(original.packageSize());
+        assertThat(struct.members()).extracting(Member::name, Member::offset)
+                .containsExactlyElementsOf(original.members().stream()
+                        .map(member -> tuple(member.name(), member.offset()))
+                        .toList());
+        assertThat(struct.documentationUrl()).hasToString(original.documentationUrl().toString());
+    }
+
+    @Test
+    void snapshot_reusesPointers() throws IOException {
+        var restored = roundTrip(metadata);
+
+        var function = restored.findFunctions(Set.of("GetClientRect")).getFirst();
+        var pointer = function.parameters()[1].type();
+        assertThat(pointer).isInstanceOf(Pointer.class);
+        assertThat(restored.makePointerFor(((Pointer) pointer).referencedType())).isSameAs(pointer);
+    }
+
+    @Test
+    void snapshot_restoresHandles() throws IOException {
+        var restored = roundTrip(metadata);
+
+        var hwnd = (TypeAlias) restored.getType("Windows.Win32.Foundation", "HWND");
+        var pwstr = (TypeAlias) restored.getType("Windows.Win32.Foundation", "PWSTR");
+        assertThat(hwnd.isHandle()).isTrue();
+        assertThat(pwstr.isHandle()).isFalse();
+    }
+
+    @Test
+    void invalidSnapshot_throwsException() {
+        var buffer = ByteBuffer.wrap(new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+        assertThatThrownBy(() -> MetadataSnapshot.read(buffer))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Metadata roundTrip(Metadata metadata) throws IOException {
+        var out = new ByteArrayOutputStream();
+        MetadataSnapshot.write(metadata, out);
+        return MetadataSnapshot.read(ByteBuffer.wrap(out.toByteArray()));
+    }
+}
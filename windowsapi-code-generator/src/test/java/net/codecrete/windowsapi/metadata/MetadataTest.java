@@ -0,0 +1,87 @@
+//
+// Windows API Generator for Java
+// Copyright (c) 2025 Manuel Bleichenbacher
+// Licensed under MIT License
+// https://opensource.org/licenses/MIT
+//
+package net.codecrete.windowsapi.metadata;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MetadataTest {
+
+    private final Metadata metadata = new Metadata();
+    private final Namespace namespace = metadata.createNamespace("Windows.Win32.Test");
+
+    @Test
+    void findTypes_usesNativeNameAndKind() {
+        var struct = new Struct("POINT", namespace, 1, false, 0, 0, null, null, null);
+        var enumType = new EnumType("POINT_KIND", namespace, 2, false);
+        metadata.addType(struct, true);
+        metadata.addType(enumType, true);
+
+        assertThat(metadata.findStructs(Set.of("POINT", "POINT_KIND", "Invalid"))).containsExactly(struct);
+        assertThat(metadata.findEnums(Set.of("POINT", "POINT_KIND"))).containsExactly(enumType);
+        assertThat(metadata.findDelegates(Set.of("POINT", "POINT_KIND"))).isEmpty();
+    }
+
+    @Test
+    void removeType_updatesIndex() {
+        var struct = new Struct("CONTEXT", namespace, 1, false, 0, 0, null, null, null);
+        metadata.addType(struct, true);
+        metadata.removeType(struct, true);
+        struct.setName("CONTEXT_X64");
+        metadata.addType(struct, true);
+
+        assertThat(metadata.findStructs(Set.of("CONTEXT"))).containsExactly(struct);
+
+        metadata.removeType(struct, true);
+        assertThat(metadata.findStructs(Set.of("CONTEXT"))).isEmpty();
+    }
+
+    @Test
+    void getEnumType_findsEnumeration() {
+        var enumType = new EnumType("COINIT", namespace, 1, true);
+        metadata.addType(enumType, true);
+
+        assertThat(metadata.getEnumType("COINIT")).isSameAs(enumType);
+        assertThatThrownBy(() -> metadata.getEnumType("Invalid"))
+                .isInstanceOf(NoSuchElementException.class);
+    }
+
+    @Test
+    void findEnumWithMember_includesAddedEnumerations() {
+        var enumType1 = new EnumType("COINIT", namespace, 1, true);
+        enumType1.setMembers(List.of(new Member("COINIT_MULTITHREADED", 0, null, 0)));
+        metadata.addType(enumType1, true);
+
+        assertThat(metadata.findEnumWithMember("COINIT_MULTITHREADED")).containsExactly(enumType1);
+
+        var enumType2 = new EnumType("COINIT2", namespace, 2, true);
+        enumType2.setMembers(List.of(new Member("COINIT_MULTITHREADED", 0, null, 0)));
+        metadata.addType(enumType2, true);
+
+        assertThat(metadata.findEnumWithMember("COINIT_MULTITHREADED")).containsExactlyInAnyOrder(enumType1, enumType2);
+        assertThat(metadata.findEnumWithMember("Invalid")).isEmpty();
+    }
+
+    @Test
+    void findFunctionsAndConstants_useIndex() {
+        var method = new Method("GetTickCount", namespace, 1);
+        metadata.addMethod(method);
+        var constant = new ConstantValue("S_OK", namespace, metadata.getPrimitive(PrimitiveKind.INT32), 0,
+                false, null);
+        metadata.addConstant(constant);
+
+        assertThat(metadata.findFunctions(Set.of("GetTickCount", "Invalid"))).containsExactly(method);
+        assertThat(metadata.findConstants(Set.of("S_OK", "Invalid"))).containsExactly(constant);
+        assertThat(namespace.constants()).containsEntry("S_OK", constant);
+    }
+}
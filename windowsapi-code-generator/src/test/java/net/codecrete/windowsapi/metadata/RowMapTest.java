@@ -0,0 +1,55 @@
+//
+// Windows API Generator for Java
+// Copyright (c) 2025 Manuel Bleichenbacher
+// Licensed under MIT License
+// https://opensource.org/licenses/MIT
+//
+package net.codecrete.windowsapi.metadata;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RowMapTest {
+
+    @Test
+    void putAndGet_growsDenseStorage() {
+        var map = new RowMap<String>(4);
+        map.put(1, "a");
+        map.put(5000, "b");
+
+        assertThat(map.get(1)).isEqualTo("a");
+        assertThat(map.get(5000)).isEqualTo("b");
+        assertThat(map.get(2)).isNull();
+        assertThat(map.get(100000)).isNull();
+        assertThat(map.size()).isEqualTo(2);
+        assertThat(map.values()).containsExactly("a", "b");
+    }
+
+    @Test
+    void syntheticIndex_usesOverflow() {
+        var map = new RowMap<String>();
+        map.put(12, "x64");
+        map.put(1000012, "arm64");
+
+        assertThat(map.get(1000012)).isEqualTo("arm64");
+        assertThat(map.containsKey(1000012)).isTrue();
+        assertThat(map.values()).containsExactly("x64", "arm64");
+
+        assertThat(map.remove(1000012)).isEqualTo("arm64");
+        assertThat(map.containsKey(1000012)).isFalse();
+        assertThat(map.size()).isEqualTo(1);
+    }
+
+    @Test
+    void putIfAbsentAndCompute_keepExistingValue() {
+        var map = new RowMap<String>();
+        assertThat(map.putIfAbsent(3, "first")).isNull();
+        assertThat(map.putIfAbsent(3, "second")).isEqualTo("first");
+        assertThat(map.computeIfAbsent(3, index -> "third")).isEqualTo("first");
+        assertThat(map.computeIfAbsent(4, index -> "row " + index)).isEqualTo("row 4");
+        assertThat(map.remove(3)).isEqualTo("first");
+        assertThat(map.remove(3)).isNull();
+        assertThat(map.size()).isEqualTo(1);
+    }
+}
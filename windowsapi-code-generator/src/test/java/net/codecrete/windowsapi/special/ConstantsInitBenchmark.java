@@ -0,0 +1,90 @@
+//
+// Windows API Generator for Java
+// Copyright (c) 2025 Manuel Bleichenbacher
+// Licensed under MIT License
+// https://opensource.org/licenses/MIT
+//
+package net.codecrete.windowsapi.special;
+
+import net.codecrete.windowsapi.SimpleEventListener;
+import net.codecrete.windowsapi.metadata.ConstantValue;
+import net.codecrete.windowsapi.metadata.Namespace;
+import net.codecrete.windowsapi.winmd.MetadataBuilder;
+import net.codecrete.windowsapi.writer.BindingsJar;
+import net.codecrete.windowsapi.writer.CodeWriter;
+import net.codecrete.windowsapi.writer.InMemorySink;
+import net.codecrete.windowsapi.writer.Scope;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Measures the initialization time and the native memory footprint of the largest {@code Constants} classes.
+ * <p>
+ * For the namespaces with the most non-numeric constants (strings, GUIDs, property keys etc.),
+ * the {@code Constants} classes are generated, compiled and loaded. The benchmark measures
+ * the class initialization and the first access to a single non-numeric constant.
+ * Native memory is measured with the "direct" buffer pool, which includes memory segments
+ * allocated by arenas.
+ * </p>
+ */
+public class ConstantsInitBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        var numNamespaces = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        var metadata = MetadataBuilder.load();
+
+        var namespaces = metadata.namespaces().values().stream()
+                .sorted(Comparator.comparingLong(ConstantsInitBenchmark::countNonNumericConstants).reversed())
+                .limit(numNamespaces)
+                .toList();
+
+        var scope = new Scope(metadata, new SimpleEventListener());
+        scope.addConstants(namespaces.stream()
+                .flatMap(namespace -> namespace.constants().keySet().stream())
+                .collect(Collectors.toSet()));
+        scope.buildTransitiveScope();
+
+        var sink = new InMemorySink();
+        new CodeWriter(metadata, sink, new SimpleEventListener()).write(scope);
+        var classLoader = new MemoryClassLoader(BindingsJar.compile(sink.getFiles()));
+
+        var directPool = ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                .filter(pool -> pool.getName().equals("direct"))
+                .findFirst().orElseThrow();
+
+        for (var namespace : namespaces) {
+            var className = namespace.name().toLowerCase(Locale.ROOT) + ".Constants";
+            var memoryBefore = directPool.getMemoryUsed();
+            var start = System.nanoTime();
+            var constantsClass = Class.forName(className, true, classLoader);
+            var initTime = System.nanoTime() - start;
+            var initMemory = directPool.getMemoryUsed() - memoryBefore;
+
+            var accessor = Arrays.stream(constantsClass.getDeclaredMethods())
+                    .filter(method -> Modifier.isPublic(method.getModifiers()) && method.getParameterCount() == 0)
+                    .findFirst().orElseThrow();
+            memoryBefore = directPool.getMemoryUsed();
+            start = System.nanoTime();
+            accessor.invoke(null);
+            var accessTime = System.nanoTime() - start;
+            var accessMemory = directPool.getMemoryUsed() - memoryBefore;
+
+            System.out.printf("%-60s %5d constants: init %.2f ms / %d bytes, first access %.2f ms / %d bytes%n",
+                    namespace.name(), countNonNumericConstants(namespace), initTime / 1e6, initMemory,
+                    accessTime / 1e6, accessMemory);
+        }
+    }
+
+    private static long countNonNumericConstants(Namespace namespace) {
+        return namespace.constants().values().stream()
+                .map(ConstantValue::value)
+                .filter(value -> !(value instanceof Number))
+                .count();
+    }
+}
@@ -0,0 +1,34 @@
+//
+// Windows API Generator for Java
+// Copyright (c) 2025 Manuel Bleichenbacher
+// Licensed under MIT License
+// https://opensource.org/licenses/MIT
+//
+package net.codecrete.windowsapi.special;
+
+import java.util.SortedMap;
+
+/**
+ * Class loader for class files compiled in memory.
+ */
+class MemoryClassLoader extends ClassLoader {
+    private final SortedMap<String, byte[]> classFiles;
+
+    /**
+     * Creates a new class loader.
+     *
+     * @param classFiles map of class file paths (with forward slashes) to class file content
+     */
+    MemoryClassLoader(SortedMap<String, byte[]> classFiles) {
+        super(ClassLoader.getPlatformClassLoader());
+        this.classFiles = classFiles;
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        var bytes = classFiles.get(name.replace('.', '/') + ".class");
+        if (bytes == null)
+            throw new ClassNotFoundException(name);
+        return defineClass(name, bytes, 0, bytes.length);
+    }
+}
@@ -0,0 +1,50 @@
+//
+// Windows API Generator for Java
+// Copyright (c) 2025 Manuel Bleichenbacher
+// Licensed under MIT License
+// https://opensource.org/licenses/MIT
+//
+package net.codecrete.windowsapi.special;
+
+import com.sun.management.ThreadMXBean;
+import net.codecrete.windowsapi.winmd.MetadataBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+/**
+ * Measures how long it takes and how much memory is allocated to build the metadata from the full .winmd file.
+ * <p>
+ * Binary snapshots are disabled so that every iteration decodes the entire file.
+ * Run it before and after a change to the metadata decoding to compare the results.
+ * </p>
+ */
+public class MetadataBuildBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 3;
+
+    public static void main(String[] args) {
+        var iterations = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        System.setProperty("windowsapi.metadataSnapshot", "false");
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i += 1)
+            MetadataBuilder.load();
+
+        var threadBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        var threadId = Thread.currentThread().threadId();
+        var times = new long[iterations];
+        var allocations = new long[iterations];
+        for (int i = 0; i < iterations; i += 1) {
+            var startAllocation = threadBean.getThreadAllocatedBytes(threadId);
+            var start = System.nanoTime();
+            MetadataBuilder.load();
+            times[i] = System.nanoTime() - start;
+            allocations[i] = threadBean.getThreadAllocatedBytes(threadId) - startAllocation;
+        }
+
+        Arrays.sort(times);
+        Arrays.sort(allocations);
+        System.out.printf("Metadata build (%d iterations): min %.1f ms, median %.1f ms, median allocation %.1f MB%n",
+                iterations, times[0] / 1e6, times[iterations / 2] / 1e6, allocations[iterations / 2] / 1e6);
+    }
+}
@@ -0,0 +1,79 @@
+//
+// Windows API Generator for Java
+// Copyright (c) 2025 Manuel Bleichenbacher
+// Licensed under MIT License
+// https://opensource.org/licenses/MIT
+//
+package net.codecrete.windowsapi.special;
+
+import net.codecrete.windowsapi.WindowsApiRun;
+import net.codecrete.windowsapi.winmd.MetadataBuilder;
+import net.codecrete.windowsapi.writer.InMemorySink;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Simulates a parallel Maven reactor build with many modules generating code.
+ * <p>
+ * Each module generates code for a small set of functions, like a plugin execution would.
+ * The modules run concurrently (like {@code mvn -T 8}). With the argument {@code separate},
+ * each module loads its own metadata; with {@code shared} (the default), all modules use
+ * {@link MetadataBuilder#loadShared()}. Run it once per mode (in separate JVMs) and compare
+ * the wall-clock time and the peak heap usage.
+ * </p>
+ */
+public class ReactorBenchmark {
+
+    private static final int NUM_MODULES = 20;
+    private static final int NUM_THREADS = 8;
+
+    private static final List<Set<String>> MODULE_FUNCTIONS = List.of(
+            Set.of("CreateFileW", "ReadFile", "WriteFile", "CloseHandle"),
+            Set.of("MessageBoxExW", "RegisterClassW", "CreateWindowExW"),
+            Set.of("SetupDiGetClassDevsW", "SetupDiEnumDeviceInterfaces", "SetupDiGetDeviceInterfaceDetailW"),
+            Set.of("CoInitializeEx", "CoCreateInstance", "CoUninitialize"),
+            Set.of("GetProcessMemoryInfo", "GetCurrentProcess", "GetLastError")
+    );
+
+    public static void main(String[] args) throws InterruptedException, ExecutionException {
+        var isShared = args.length == 0 || !args[0].equals("separate");
+
+        var heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+        var start = System.nanoTime();
+        try (var executor = Executors.newFixedThreadPool(NUM_THREADS)) {
+            var modules = new ArrayList<Future<?>>();
+            for (int i = 0; i < NUM_MODULES; i += 1) {
+                var functions = MODULE_FUNCTIONS.get(i % MODULE_FUNCTIONS.size());
+                modules.add(executor.submit(() -> generateModule(functions, isShared)));
+            }
+            for (var module : modules)
+                module.get();
+        }
+        var duration = System.nanoTime() - start;
+
+        var peakHeap = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+        System.out.printf("Reactor with %d modules on %d threads (%s metadata): %.1f s, peak heap %.1f MB%n",
+                NUM_MODULES, NUM_THREADS, isShared ? "shared" : "separate", duration / 1e9, peakHeap / 1e6);
+    }
+
+    private static void generateModule(Set<String> functions, boolean isShared) {
+        var run = new WindowsApiRun();
+        run.setOutputSink(new InMemorySink());
+        run.setFunctions(functions);
+        if (isShared)
+            run.setMetadata(MetadataBuilder.loadShared());
+        run.generateCode();
+    }
+}
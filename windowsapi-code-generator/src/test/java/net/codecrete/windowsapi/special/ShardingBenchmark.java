@@ -0,0 +1,64 @@
+//
+// Windows API Generator for Java
+// Copyright (c) 2025 Manuel Bleichenbacher
+// Licensed under MIT License
+// https://opensource.org/licenses/MIT
+//
+package net.codecrete.windowsapi.special;
+
+import net.codecrete.windowsapi.SimpleEventListener;
+import net.codecrete.windowsapi.winmd.MetadataBuilder;
+import net.codecrete.windowsapi.writer.BindingsJar;
+import net.codecrete.windowsapi.writer.CodeWriter;
+import net.codecrete.windowsapi.writer.InMemorySink;
+import net.codecrete.windowsapi.writer.ShardingStrategy;
+
+import java.util.SortedMap;
+
+/**
+ * Measures the compile time of the full API and the class loading time of the
+ * {@code Apis} and {@code Constants} classes for each sharding strategy.
+ * <p>
+ * Class loading includes verification but not initialization (DLLs are not loaded),
+ * so the benchmark can also be run on other operating systems.
+ * </p>
+ */
+public class ShardingBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        var threshold = args.length > 0 ? Integer.parseInt(args[0]) : ShardingStrategy.DEFAULT_THRESHOLD;
+        var metadata = MetadataBuilder.load();
+
+        for (var strategy : ShardingStrategy.values()) {
+            var sink = new InMemorySink();
+            var codeWriter = new CodeWriter(metadata, sink, new SimpleEventListener());
+            codeWriter.setSharding(strategy, threshold);
+            codeWriter.writeAll();
+
+            var start = System.nanoTime();
+            var classFiles = BindingsJar.compile(sink.getFiles());
+            var compileTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            var numClasses = loadFacades(classFiles);
+            var loadTime = System.nanoTime() - start;
+
+            System.out.printf("%-12s %6d files, compile %.1f s, loading %d facades %.1f ms%n",
+                    strategy, sink.getFiles().size(), compileTime / 1e9, numClasses, loadTime / 1e6);
+        }
+    }
+
+    private static int loadFacades(SortedMap<String, byte[]> classFiles) throws ClassNotFoundException {
+        var classLoader = new MemoryClassLoader(classFiles);
+        var numClasses = 0;
+        for (var entry : classFiles.keySet()) {
+            if (!entry.endsWith("/Apis.class") && !entry.endsWith("/Constants.class"))
+                continue;
+            var className = entry.substring(0, entry.length() - 6).replace('/', '.');
+            // querying the methods links (and verifies) the class without initializing it
+            Class.forName(className, false, classLoader).getDeclaredMethods();
+            numClasses += 1;
+        }
+        return numClasses;
+    }
+}
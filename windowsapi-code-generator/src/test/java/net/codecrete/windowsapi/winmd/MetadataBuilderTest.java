@@ -6,11 +6,17 @@
 //
 package net.codecrete.windowsapi.winmd;
 
+import net.codecrete.windowsapi.metadata.ConstantValue;
 import net.codecrete.windowsapi.metadata.Metadata;
 import net.codecrete.windowsapi.metadata.Method;
+import net.codecrete.windowsapi.metadata.Struct;
 import net.codecrete.windowsapi.metadata.Type;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 class MetadataBuilderTest {
@@ -70,6 +76,38 @@ class MetadataBuilderTest {
                 );
     }
 
+    @Test
+    void parallelBuild_producesIdenticalModel() {
+        Metadata parallelMetadata;
+        System.setProperty(MetadataBuilder.PARALLEL_BUILD_PROPERTY, "true");
+        try {
+            parallelMetadata = MetadataBuilder.load();
+        } finally {
+            System.clearProperty(MetadataBuilder.PARALLEL_BUILD_PROPERTY);
+        }
+
+        assertThat(describeMethods(parallelMetadata)).containsExactlyElementsOf(describeMethods(metadata));
+        assertThat(describeStructs(parallelMetadata)).containsExactlyElementsOf(describeStructs(metadata));
+        assertThat(parallelMetadata.constants().map(ConstantValue::name).sorted())
+                .containsExactlyElementsOf(metadata.constants().map(ConstantValue::name).sorted().toList());
+    }
+
+    private static List<String> describeMethods(Metadata metadata) {
+        return metadata.methods()
+                .map(method -> method.name() + "(" + Arrays.stream(method.parameters())
+                        .map(parameter -> parameter.name() + ": " + parameter.type().name())
+                        .collect(Collectors.joining(", ")) + "): " + method.returnType().name())
+                .toList();
+    }
+
+    private static List<String> describeStructs(Metadata metadata) {
+        return metadata.types()
+                .filter(Struct.class::isInstance)
+                .map(Struct.class::cast)
+                .map(struct -> struct.name() + " " + struct.structSize())
+                .toList();
+    }
+
     @Test
     void shouldHaveSplitArchitectureSpecificMethods() {
         assertThat(metadata.methods()
@@ -41,4 +41,27 @@ class MetadataFileTest {
         }
         assertThat(count).isGreaterThan(10000);
     }
+
+    @Test
+    void readMappedFile() {
+        // map the cached file as the mapping is not released before the JVM exits (and locks the file on Windows)
+        var winmdFile = MetadataCache.getResourceFile("Windows.Win32.winmd");
+        assertThat(winmdFile).isRegularFile();
+
+        var mappedFile = new MetadataFile(winmdFile);
+        assertThat(mappedFile.getVersion()).isEqualTo(metadataFile.getVersion());
+        assertThat(mappedFile.getTypeDefinitionCount()).isEqualTo(metadataFile.getTypeDefinitionCount());
+        for (int i = 1; i <= metadataFile.getTypeDefinitionCount(); i += 1) {
+            var typeDef = metadataFile.getTypeDef(i);
+            assertThat(mappedFile.getTypeDef(i)).isEqualTo(typeDef);
+            assertThat(mappedFile.getString(typeDef.typeName())).isEqualTo(metadataFile.getString(typeDef.typeName()));
+        }
+    }
+
+    @Test
+    void extractResourceToCache() {
+        var winmdFile = MetadataCache.getResourceFile("Windows.Win32.winmd");
+        assertThat(winmdFile).isRegularFile();
+        assertThat(new MetadataFile(winmdFile).getVersion()).isEqualTo("v4.0.30319");
+    }
 }
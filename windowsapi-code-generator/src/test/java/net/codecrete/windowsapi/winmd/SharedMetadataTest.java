@@ -0,0 +1,59 @@
+//
+// Windows API Generator for Java
+// Copyright (c) 2025 Manuel Bleichenbacher
+// Licensed under MIT License
+// https://opensource.org/licenses/MIT
+//
+package net.codecrete.windowsapi.winmd;
+
+import net.codecrete.windowsapi.metadata.Metadata;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SharedMetadataTest {
+
+    private static final Metadata metadata = MetadataBuilder.load();
+
+    @Test
+    void get_concurrently_loadsOnce() throws ExecutionException, InterruptedException {
+        var loadCount = new AtomicInteger();
+        var results = new ArrayList<Future<Metadata>>();
+        try (var executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 20; i += 1)
+                results.add(executor.submit(() -> SharedMetadata.get("test-concurrent", () -> {
+                    loadCount.incrementAndGet();
+                    return metadata;
+                })));
+        }
+
+        for (var result : results)
+            assertThat(result.get()).isSameAs(metadata);
+        assertThat(loadCount).hasValue(1);
+    }
+
+    @Test
+    void get_differentIdentity_loadsAgain() {
+        var loadCount = new AtomicInteger();
+        SharedMetadata.get("test-identity-1", () -> {
+            loadCount.incrementAndGet();
+            return metadata;
+        });
+        SharedMetadata.get("test-identity-2", () -> {
+            loadCount.incrementAndGet();
+            return metadata;
+        });
+        assertThat(loadCount).hasValue(2);
+    }
+
+    @Test
+    void loadShared_returnsSameInstance() {
+        assertThat(MetadataBuilder.loadShared()).isSameAs(MetadataBuilder.loadShared());
+    }
+}
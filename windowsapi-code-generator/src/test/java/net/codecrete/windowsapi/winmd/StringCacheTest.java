@@ -0,0 +1,44 @@
+//
+// Windows API Generator for Java
+// Copyright (c) 2025 Manuel Bleichenbacher
+// Licensed under MIT License
+// https://opensource.org/licenses/MIT
+//
+package net.codecrete.windowsapi.winmd;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StringCacheTest {
+
+    @Test
+    void computeIfAbsent_decodesOnce() {
+        var cache = new StringCache();
+        var decodeCount = new AtomicInteger();
+
+        var first = cache.computeIfAbsent(17, offset -> {
+            decodeCount.incrementAndGet();
+            return new String("hWnd");
+        });
+        var second = cache.computeIfAbsent(17, offset -> {
+            decodeCount.incrementAndGet();
+            return new String("hWnd");
+        });
+
+        assertThat(second).isSameAs(first);
+        assertThat(decodeCount).hasValue(1);
+    }
+
+    @Test
+    void computeIfAbsent_keepsEntriesWhenGrowing() {
+        var cache = new StringCache();
+        for (int offset = 1; offset <= 20000; offset += 1)
+            cache.computeIfAbsent(offset, String::valueOf);
+
+        for (int offset = 1; offset <= 20000; offset += 1)
+            assertThat(cache.computeIfAbsent(offset, it -> "missing")).isEqualTo(String.valueOf(offset));
+    }
+}
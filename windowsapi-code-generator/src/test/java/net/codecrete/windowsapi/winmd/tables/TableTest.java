@@ -0,0 +1,59 @@
+//
+// Windows API Generator for Java
+// Copyright (c) 2025 Manuel Bleichenbacher
+// Licensed under MIT License
+// https://opensource.org/licenses/MIT
+//
+package net.codecrete.windowsapi.winmd.tables;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TableTest {
+
+    private static Table createTable() {
+        // 3 rows with the columns: 2 bytes, 4 bytes, 2 bytes (sorted by last column)
+        var data = ByteBuffer.allocate(24).order(ByteOrder.LITTLE_ENDIAN);
+        for (int row = 1; row <= 3; row += 1) {
+            data.putShort((short) (row * 10));
+            data.putInt(row * 100000);
+            data.putShort((short) (row * 2));
+        }
+        var table = new Table(3);
+        table.setColumnWidths(2, 4, 2);
+        table.setData(data.flip());
+        return table;
+    }
+
+    @Test
+    void getValue_returnsColumnValue() {
+        var table = createTable();
+
+        assertThat(table.width()).isEqualTo(8);
+        assertThat(table.getValue(1, 0)).isEqualTo(10);
+        assertThat(table.getValue(2, 1)).isEqualTo(200000);
+        assertThat(table.getValue(3, 2)).isEqualTo(6);
+    }
+
+    @Test
+    void getRow_returnsAllColumns() {
+        var table = createTable();
+        var values = new int[3];
+        table.getRow(2, values);
+
+        assertThat(values).containsExactly(20, 200000, 4);
+    }
+
+    @Test
+    void indexByKeyColumn_findsRow() {
+        var table = createTable();
+
+        assertThat(table.indexByKeyColumn(4, 2)).isEqualTo(2);
+        assertThat(table.indexByKeyColumn(5, 2)).isZero();
+        assertThat(table.indexByKeyColumn(10, 0)).isEqualTo(1);
+    }
+}
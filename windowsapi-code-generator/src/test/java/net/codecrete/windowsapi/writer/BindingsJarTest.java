@@ -0,0 +1,122 @@
+//
+// Windows API Generator for Java
+// Copyright (c) 2025 Manuel Bleichenbacher
+// Licensed under MIT License
+// https://opensource.org/licenses/MIT
+//
+package net.codecrete.windowsapi.writer;
+
+import net.codecrete.windowsapi.SimpleEventListener;
+import net.codecrete.windowsapi.Testing;
+import net.codecrete.windowsapi.winmd.MetadataBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.JarFile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class BindingsJarTest {
+
+    private static final Map<Path, String> SOURCES = Map.of(
+            Path.of("windows", "win32", "foundation", "RECT.java"),
+            "package windows.win32.foundation; public class RECT { public static class Inner {} }",
+            Path.of("windows", "win32", "foundation", "Apis.java"),
+            "package windows.win32.foundation; public class Apis { RECT rect; }"
+    );
+
+    @Test
+    void compile_producesClassFiles() {
+        assumeCompilerSupportsRelease();
+        var classFiles = BindingsJar.compile(SOURCES);
+        assertThat(classFiles).containsOnlyKeys(
+                "windows/win32/foundation/Apis.class",
+                "windows/win32/foundation/RECT.class",
+                "windows/win32/foundation/RECT$Inner.class"
+        );
+    }
+
+    @Test
+    void compile_generatedCode_succeeds() {
+        assumeCompilerSupportsRelease();
+        var metadata = MetadataBuilder.load();
+        var scope = new Scope(metadata, new SimpleEventListener());
+        scope.addStructs(Set.of("USB_NODE_CONNECTION_INFORMATION_EX"));
+        scope.addFunctions(Set.of("DeviceIoControl"));
+        scope.addConstants(Set.of("GUID_DEVINTERFACE_USB_DEVICE"));
+        scope.buildTransitiveScope();
+
+        var sink = new InMemorySink();
+        new CodeWriter(metadata, sink, new SimpleEventListener()).write(scope);
+
+        var classFiles = BindingsJar.compile(sink.getFiles());
+        assertThat(classFiles).containsKeys(
+                "windows/win32/devices/usb/USB_NODE_CONNECTION_INFORMATION_EX.class",
+                "windows/win32/devices/usb/Constants.class"
+        );
+    }
+
+    @Test
+    void compile_invalidSource_throws() {
+        assumeCompilerSupportsRelease();
+        var sources = Map.of(Path.of("Invalid.java"), "class Invalid { int x = ; }");
+        assertThatThrownBy(() -> BindingsJar.compile(sources))
+                .isInstanceOf(GenerationException.class)
+                .hasMessageContaining("Invalid.java");
+    }
+
+    @Test
+    void compile_unsupportedRelease_throws() {
+        assumeFalse(BindingsJar.isReleaseSupported());
+        assertThatThrownBy(() -> BindingsJar.compile(SOURCES))
+                .isInstanceOf(GenerationException.class)
+                .hasMessageContaining("release " + BindingsJar.RELEASE);
+    }
+
+    @Test
+    void writeJar_isReproducible() throws IOException {
+        assumeCompilerSupportsRelease();
+        var temporaryFolder = Files.createTempDirectory("temporary-folder");
+        try {
+            var jar1 = temporaryFolder.resolve("bindings1.jar");
+            var jar2 = temporaryFolder.resolve("bindings2.jar");
+            BindingsJar.writeJar(jar1, BindingsJar.compile(SOURCES), "abc");
+            BindingsJar.writeJar(jar2, BindingsJar.compile(SOURCES), "abc");
+
+            assertThat(jar1).hasSameBinaryContentAs(jar2);
+            assertThat(BindingsJar.readConfigurationHash(jar1)).isEqualTo("abc");
+            assertThat(BindingsJar.readConfigurationHash(temporaryFolder.resolve("missing.jar"))).isNull();
+
+        } finally {
+            Testing.deleteDirectory(temporaryFolder);
+        }
+    }
+
+    @Test
+    void writeSourcesJar_containsSources() throws IOException {
+        var temporaryFolder = Files.createTempDirectory("temporary-folder");
+        try {
+            var jarFile = temporaryFolder.resolve("bindings-sources.jar");
+            BindingsJar.writeSourcesJar(jarFile, SOURCES, "abc");
+
+            try (var jar = new JarFile(jarFile.toFile())) {
+                assertThat(jar.getEntry("windows/win32/foundation/RECT.java")).isNotNull();
+                assertThat(jar.getEntry("windows/win32/foundation/Apis.java")).isNotNull();
+            }
+
+        } finally {
+            Testing.deleteDirectory(temporaryFolder);
+        }
+    }
+
+    private static void assumeCompilerSupportsRelease() {
+        assumeTrue(BindingsJar.isReleaseSupported(), "Java compiler does not support release " + BindingsJar.RELEASE);
+    }
+}
@@ -147,6 +147,172 @@ class CodeWriterTest {
         assertThat(eventListener.fileCount).isEqualTo(16);
     }
 
+    @Test
+    void writeAll_inParallel_generatesSameFiles() {
+        var sequentialListener = new FileNameListener();
+        var sequentialWriter = new CodeWriter(metadata, Path.of("."), sequentialListener);
+        sequentialWriter.setDryRun(true);
+        sequentialWriter.writeAll();
+
+        var parallelListener = new FileNameListener();
+        var parallelWriter = new CodeWriter(metadata, Path.of("."), parallelListener);
+        parallelWriter.setDryRun(true);
+        parallelWriter.setParallelism(4);
+        parallelWriter.writeAll();
+
+        assertThat(parallelListener.filePaths).containsExactlyInAnyOrderElementsOf(sequentialListener.filePaths);
+    }
+
+    @Test
+    void writeSingle_onVirtualThreads_generatesSameContent() throws IOException {
+        var sequentialDirectory = Files.createTempDirectory("winapi");
+        var parallelDirectory = Files.createTempDirectory("winapi");
+        try {
+            var sequentialFiles = writeScope(sequentialDirectory, 1);
+            var parallelFiles = writeScope(parallelDirectory, 0);
+
+            assertThat(parallelFiles).isEqualTo(sequentialFiles);
+            for (var path : sequentialFiles)
+                assertThat(parallelDirectory.resolve(path)).hasSameTextualContentAs(sequentialDirectory.resolve(path));
+
+        } finally {
+            Testing.deleteDirectory(sequentialDirectory);
+            Testing.deleteDirectory(parallelDirectory);
+        }
+    }
+
+    @Test
+    void writeSharded_generatesFacade() {
+        var scope = new Scope(metadata, new SimpleEventListener());
+        scope.addFunctions(Set.of(
+                "SetupDiCreateDeviceInfoList",
+                "SetupDiDestroyDeviceInfoList",
+                "SetupDiEnumDeviceInfo",
+                "SetupDiGetClassDevsW",
+                "SetupDiOpenDevRegKey"
+        ));
+        scope.buildTransitiveScope();
+
+        var sink = new InMemorySink();
+        var codeWriter = new CodeWriter(metadata, sink, new SimpleEventListener());
+        codeWriter.setSharding(ShardingStrategy.BY_SIZE, 2);
+        codeWriter.write(scope);
+
+        var packagePath = Path.of("windows", "win32", "devices", "deviceanddriverinstallation");
+        assertThat(sink.getFiles()).containsKeys(
+                packagePath.resolve("Apis.java"),
+                packagePath.resolve("Apis_1.java"),
+                packagePath.resolve("Apis_2.java"),
+                packagePath.resolve("Apis_3.java")
+        );
+        assertThat(sink.getFiles().get(packagePath.resolve("Apis.java")).toString())
+                .contains("public static MethodHandle SetupDiGetClassDevsW$handle()")
+                .contains("Apis_3.SetupDiOpenDevRegKey(")
+                .doesNotContain("System.load");
+    }
+
+    @Test
+    void writeFunctions_loadsLibrariesLazily() {
+        var scope = new Scope(metadata, new SimpleEventListener());
+        scope.addFunctions(Set.of("SetupDiGetClassDevsW", "SetupDiDestroyDeviceInfoList"));
+        scope.buildTransitiveScope();
+
+        var sink = new InMemorySink();
+        new CodeWriter(metadata, sink, new SimpleEventListener()).write(scope);
+
+        var packagePath = Path.of("windows", "win32", "devices", "deviceanddriverinstallation");
+        assertThat(sink.getFiles().get(packagePath.resolve("Apis.java")).toString())
+                .contains("private static class SETUPAPI$DLL {")
+                .contains("SETUPAPI$DLL.LOOKUP.findOrThrow(\"SetupDiGetClassDevsW\")")
+                .doesNotContain("static {")
+                .doesNotContain("System.load");
+    }
+
+    @Test
+    void writeFunctions_withCriticalFunctions_linksCritical() {
+        var scope = new Scope(metadata, new SimpleEventListener());
+        scope.addFunctions(Set.of("GetProcessHandleCount", "GetCurrentProcess"));
+        scope.buildTransitiveScope();
+
+        var sink = new InMemorySink();
+        var codeWriter = new CodeWriter(metadata, sink, new SimpleEventListener());
+        codeWriter.setCriticalFunctions(Set.of("GetProcessHandle*"));
+        codeWriter.write(scope);
+
+        var packagePath = Path.of("windows", "win32", "system", "threading");
+        assertThat(sink.getFiles().get(packagePath.resolve("Apis.java")).toString())
+                .contains("findOrThrow(\"GetProcessHandleCount\"), DESC, lastErrorState(), Linker.Option.critical(true));")
+                .contains("findOrThrow(\"GetCurrentProcess\"), DESC);")
+                .contains("public static int GetProcessHandleCount(MemorySegment lastErrorState, MemorySegment hProcess, int[] pdwHandleCount) {")
+                .contains("MemorySegment.ofArray(pdwHandleCount)");
+    }
+
+    @Test
+    void writeFunctionsAndStructs_withHandlesAsLong_useLong() {
+        var scope = new Scope(metadata, new SimpleEventListener());
+        scope.addFunctions(Set.of("GetForegroundWindow", "ShowWindow"));
+        scope.addStructs(Set.of("MSG"));
+        scope.buildTransitiveScope();
+
+        var sink = new InMemorySink();
+        var codeWriter = new CodeWriter(metadata, sink, new SimpleEventListener());
+        codeWriter.setHandlesAsLong(true);
+        codeWriter.write(scope);
+
+        var packagePath = Path.of("windows", "win32", "ui", "windowsandmessaging");
+        assertThat(sink.getFiles().get(packagePath.resolve("Apis.java")).toString())
+                .contains("public static long GetForegroundWindow() {")
+                .contains("public static int ShowWindow(long hWnd, int nCmdShow) {")
+                .contains("FunctionDescriptor.of(JAVA_LONG);");
+        assertThat(sink.getFiles().get(packagePath.resolve("MSG.java")).toString())
+                .contains("public static long hwnd(MemorySegment segment) {")
+                .contains("return segment.get(JAVA_LONG, 0L);");
+    }
+
+    @Test
+    void writeFunctions_withLastError_addsThreadLocalStateOverload() {
+        var scope = new Scope(metadata, new SimpleEventListener());
+        scope.addFunctions(Set.of("GetModuleHandleW"));
+        scope.buildTransitiveScope();
+
+        var sink = new InMemorySink();
+        new CodeWriter(metadata, sink, new SimpleEventListener()).write(scope);
+
+        var packagePath = Path.of("windows", "win32", "system", "libraryloader");
+        assertThat(sink.getFiles().get(packagePath.resolve("Apis.java")).toString())
+                .contains("public static MemorySegment GetModuleHandleW(MemorySegment lastErrorState, MemorySegment lpModuleName) {")
+                .contains("public static MemorySegment GetModuleHandleW(MemorySegment lpModuleName) {")
+                .contains("return GetModuleHandleW(LastError$STATE.SEGMENT.get(), lpModuleName);")
+                .contains("public static int lastError() {");
+    }
+
+    @Test
+    void writeConstants_allocatesLazily() {
+        var scope = new Scope(metadata, new SimpleEventListener());
+        scope.addConstants(Set.of("GUID_DEVINTERFACE_USB_DEVICE"));
+        scope.buildTransitiveScope();
+
+        var sink = new InMemorySink();
+        new CodeWriter(metadata, sink, new SimpleEventListener()).write(scope);
+
+        var packagePath = Path.of("windows", "win32", "devices", "usb");
+        assertThat(sink.getFiles().get(packagePath.resolve("Constants.java")).toString())
+                .contains("private static class GUID_DEVINTERFACE_USB_DEVICE$IMPL {")
+                .contains("return GUID_DEVINTERFACE_USB_DEVICE$IMPL.SEG;");
+    }
+
+    private Set<Path> writeScope(Path outputDirectory, int parallelism) {
+        var scope = new Scope(metadata, new SimpleEventListener());
+        scope.addStructs(Set.of("USB_NODE_CONNECTION_INFORMATION_EX"));
+        scope.addFunctions(Set.of("CreateWindowExW", "DeviceIoControl"));
+        scope.addConstants(Set.of("GUID_DEVINTERFACE_USB_DEVICE", "WM_DEVICECHANGE"));
+        scope.buildTransitiveScope();
+        var codeWriter = new CodeWriter(metadata, outputDirectory, new SimpleEventListener());
+        codeWriter.setParallelism(parallelism);
+        codeWriter.write(scope);
+        return codeWriter.getGeneratedFiles();
+    }
+
     static class FileCountEventListener implements EventListener {
 
         int fileCount = 0;
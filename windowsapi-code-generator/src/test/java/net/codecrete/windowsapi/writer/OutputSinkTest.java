@@ -0,0 +1,148 @@
+//
+// Windows API Generator for Java
+// Copyright (c) 2025 Manuel Bleichenbacher
+// Licensed under MIT License
+// https://opensource.org/licenses/MIT
+//
+package net.codecrete.windowsapi.writer;
+
+import net.codecrete.windowsapi.Testing;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.zip.ZipFile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OutputSinkTest {
+
+    @Test
+    void unchangedFile_isNotRewritten() throws IOException {
+        var temporaryFolder = Files.createTempDirectory("temporary-folder");
+        try {
+            var sink = new FileSystemSink(temporaryFolder);
+            var path = Path.of("pkg", "Test.java");
+            var file = temporaryFolder.resolve(path);
+            writeFile(sink, path, "class Test {}");
+            var oldTime = FileTime.from(Instant.parse("2020-01-01T00:00:00Z"));
+            Files.setLastModifiedTime(file, oldTime);
+
+            writeFile(sink, path, "class Test {}");
+            assertThat(Files.getLastModifiedTime(file)).isEqualTo(oldTime);
+
+            writeFile(sink, path, "class Test { }");
+            assertThat(Files.getLastModifiedTime(file)).isNotEqualTo(oldTime);
+            assertThat(file).hasContent("class Test { }");
+
+        } finally {
+            Testing.deleteDirectory(temporaryFolder);
+        }
+    }
+
+    @Test
+    void manifest_roundTrips() throws IOException {
+        var temporaryFolder = Files.createTempDirectory("temporary-folder");
+        try {
+            var manifest = new GenerationManifest();
+            var path = Path.of("windows", "win32", "foundation", "Apis.java");
+            manifest.put(path, GenerationManifest.hashOf(new byte[]{1, 2, 3}));
+            manifest.setConfigurationHash("abcd");
+            manifest.write(temporaryFolder);
+
+            var restored = GenerationManifest.read(temporaryFolder);
+            assertThat(restored).isNotNull();
+            assertThat(restored.paths()).containsExactly(path);
+            assertThat(restored.hash(path)).isEqualTo(manifest.hash(path));
+            assertThat(restored.getConfigurationHash()).isEqualTo("abcd");
+            assertThat(GenerationManifest.read(temporaryFolder.resolve("missing"))).isNull();
+
+        } finally {
+            Testing.deleteDirectory(temporaryFolder);
+        }
+    }
+
+    @Test
+    void manifest_withPathOutsideDirectory_isInvalid() throws IOException {
+        var temporaryFolder = Files.createTempDirectory("temporary-folder");
+        try {
+            var manifestFile = temporaryFolder.resolve(GenerationManifest.FILE_NAME);
+            Files.writeString(manifestFile, "1234 windows/../../outside.java\n");
+            assertThat(GenerationManifest.read(temporaryFolder)).isNull();
+
+            Files.writeString(manifestFile, "1234 windows/./Apis.java\n");
+            assertThat(GenerationManifest.read(temporaryFolder)).isNull();
+
+            Files.writeString(manifestFile, "1234 /windows/Apis.java\n");
+            assertThat(GenerationManifest.read(temporaryFolder)).isNull();
+
+            Files.writeString(manifestFile, "1234 windows/Apis.java\n");
+            assertThat(GenerationManifest.read(temporaryFolder)).isNotNull();
+
+        } finally {
+            Testing.deleteDirectory(temporaryFolder);
+        }
+    }
+
+    @Test
+    void fileSystemSink_recordsManifest() throws IOException {
+        var temporaryFolder = Files.createTempDirectory("temporary-folder");
+        try {
+            var sink = new FileSystemSink(temporaryFolder);
+            var path = Path.of("windows", "win32", "foundation", "Apis.java");
+            writeFile(sink, path, "class Apis {}");
+
+            assertThat(temporaryFolder.resolve(path)).hasContent("class Apis {}");
+            assertThat(sink.getManifest().paths()).containsExactly(path);
+            assertThat(sink.getManifest().hash(path))
+                    .isEqualTo(GenerationManifest.hashOf("class Apis {}".getBytes(StandardCharsets.UTF_8)));
+
+        } finally {
+            Testing.deleteDirectory(temporaryFolder);
+        }
+    }
+
+    @Test
+    void inMemorySink_collectsFiles() {
+        var sink = new InMemorySink();
+        var path = Path.of("windows", "win32", "foundation", "Apis.java");
+        writeFile(sink, path, "class Apis {}");
+
+        assertThat(sink.getFiles()).containsOnlyKeys(path);
+        assertThat(sink.getFiles().get(path)).hasToString("class Apis {}");
+    }
+
+    @Test
+    void zipSink_writesEntries() throws IOException {
+        var temporaryFolder = Files.createTempDirectory("temporary-folder");
+        try {
+            var zipFile = temporaryFolder.resolve("sources.zip");
+            var sink = new ZipSink(zipFile);
+            writeFile(sink, Path.of("windows", "win32", "foundation", "Apis.java"), "class Apis {}");
+            writeFile(sink, Path.of("windows", "win32", "foundation", "RECT.java"), "class RECT {}");
+            sink.close();
+
+            try (var zip = new ZipFile(zipFile.toFile())) {
+                var entry = zip.getEntry("windows/win32/foundation/RECT.java");
+                assertThat(entry).isNotNull();
+                assertThat(new String(zip.getInputStream(entry).readAllBytes(), StandardCharsets.UTF_8))
+                        .isEqualTo("class RECT {}");
+                assertThat(zip.getEntry("windows/win32/foundation/Apis.java")).isNotNull();
+            }
+
+        } finally {
+            Testing.deleteDirectory(temporaryFolder);
+        }
+    }
+
+    private static void writeFile(OutputSink sink, Path path, String content) {
+        try (var writer = new PrintWriter(new SinkWriter(path, sink))) {
+            writer.print(content);
+        }
+    }
+}
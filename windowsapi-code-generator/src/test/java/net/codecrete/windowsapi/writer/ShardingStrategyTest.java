@@ -0,0 +1,63 @@
+//
+// Windows API Generator for Java
+// Copyright (c) 2025 Manuel Bleichenbacher
+// Licensed under MIT License
+// https://opensource.org/licenses/MIT
+//
+package net.codecrete.windowsapi.writer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShardingStrategyTest {
+
+    private static final List<String> NAMES = List.of("Beep", "CloseHandle", "CreateFileW", "GetLastError",
+            "MessageBoxW", "ReadFile", "_lopen", "WriteFile");
+    private static final Map<String, String> DLLS = Map.of("Beep", "KERNEL32.dll", "CloseHandle", "KERNEL32.dll",
+            "CreateFileW", "KERNEL32.dll", "GetLastError", "KERNEL32.dll", "MessageBoxW", "USER32.dll",
+            "ReadFile", "KERNEL32.dll", "_lopen", "KERNEL32.dll", "WriteFile", "api-ms-win-core-file-l1-1-0.dll");
+
+    @Test
+    void none_doesNotShard() {
+        assertThat(ShardingStrategy.NONE.shard(NAMES, Function.identity(), DLLS::get, 2)).isNull();
+    }
+
+    @Test
+    void belowThreshold_doesNotShard() {
+        assertThat(ShardingStrategy.BY_SIZE.shard(NAMES, Function.identity(), DLLS::get, 8)).isNull();
+    }
+
+    @Test
+    void byDll_groupsByDll() {
+        var shards = ShardingStrategy.BY_DLL.shard(NAMES, Function.identity(), DLLS::get, 2);
+        assertThat(shards).containsOnlyKeys("API_MS_WIN_CORE_FILE_L1_1_0", "KERNEL32", "USER32");
+        assertThat(shards.get("KERNEL32"))
+                .containsExactly("Beep", "CloseHandle", "CreateFileW", "GetLastError", "ReadFile", "_lopen");
+    }
+
+    @Test
+    void byDll_withoutDll_splitsBySize() {
+        var shards = ShardingStrategy.BY_DLL.shard(NAMES, Function.identity(), null, 5);
+        assertThat(shards).containsOnlyKeys("1", "2");
+    }
+
+    @Test
+    void alphabetical_groupsByFirstLetter() {
+        var shards = ShardingStrategy.ALPHABETICAL.shard(NAMES, Function.identity(), DLLS::get, 2);
+        assertThat(shards).containsOnlyKeys("B", "C", "G", "M", "R", "W", "_");
+        assertThat(shards.get("C")).containsExactly("CloseHandle", "CreateFileW");
+    }
+
+    @Test
+    void bySize_splitsIntoChunks() {
+        var shards = ShardingStrategy.BY_SIZE.shard(NAMES, Function.identity(), DLLS::get, 3);
+        assertThat(shards).containsOnlyKeys("1", "2", "3");
+        assertThat(shards.get("1")).containsExactly("Beep", "CloseHandle", "CreateFileW");
+        assertThat(shards.get("3")).containsExactly("WriteFile", "_lopen");
+    }
+}
@@ -0,0 +1,77 @@
+//
+// Windows API Generator for Java
+// Copyright (c) 2025 Manuel Bleichenbacher
+// Licensed under MIT License
+// https://opensource.org/licenses/MIT
+//
+package net.codecrete.windowsapi.gradle
+
+import net.codecrete.windowsapi.WindowsApiException
+import net.codecrete.windowsapi.WindowsApiRun
+import net.codecrete.windowsapi.writer.ShardingStrategy
+import org.gradle.api.InvalidUserDataException
+import org.gradle.api.file.DirectoryProperty
+import org.gradle.api.logging.Logging
+import org.gradle.api.provider.ListProperty
+import org.gradle.api.provider.Property
+import org.gradle.workers.WorkAction
+import org.gradle.workers.WorkParameters
+
+/**
+ * Worker action generating Windows API bindings.
+ *
+ * The action runs in the Gradle daemon (without isolation) so that it can use
+ * the metadata shared by [MetadataService].
+ */
+abstract class GenerateCodeAction : WorkAction<GenerateCodeAction.Parameters> {
+
+    /**
+     * Parameters of the code generation.
+     */
+    interface Parameters : WorkParameters {
+        val functions: ListProperty<String>
+        val structs: ListProperty<String>
+        val enumerations: ListProperty<String>
+        val callbackFunctions: ListProperty<String>
+        val comInterfaces: ListProperty<String>
+        val constants: ListProperty<String>
+        val criticalFunctions: ListProperty<String>
+        val outputDirectory: DirectoryProperty
+        val basePackage: Property<String>
+        val handlesAsLong: Property<Boolean>
+        val shardingStrategy: Property<String>
+        val shardThreshold: Property<Int>
+        val metadataService: Property<MetadataService>
+    }
+
+    override fun execute() {
+        val run = WindowsApiRun()
+        run.eventListener = EventLogger(Logging.getLogger(WindowsApiTask::class.java))
+        run.metadata = parameters.metadataService.get().getMetadata()
+
+        run.functions.addAll(parameters.functions.get())
+        run.structs.addAll(parameters.structs.get())
+        run.enumerations.addAll(parameters.enumerations.get())
+        run.callbackFunctions.addAll(parameters.callbackFunctions.get())
+        run.comInterfaces.addAll(parameters.comInterfaces.get())
+        run.constants.addAll(parameters.constants.get())
+        run.criticalFunctions.addAll(parameters.criticalFunctions.get())
+        run.outputDirectory = parameters.outputDirectory.get().asFile.toPath()
+        run.basePackage = parameters.basePackage.get()
+        run.isHandlesAsLong = parameters.handlesAsLong.getOrElse(false)
+        run.shardingStrategy = getShardingStrategy(parameters.shardingStrategy.getOrElse(ShardingStrategy.NONE.name))
+        run.shardThreshold = parameters.shardThreshold.getOrElse(ShardingStrategy.DEFAULT_THRESHOLD)
+
+        try {
+            run.generateCode()
+        } catch (_: WindowsApiException) {
+            throw InvalidUserDataException("Windows API code generation failed as the arguments are invalid")
+        }
+    }
+
+    private fun getShardingStrategy(name: String): ShardingStrategy {
+        return ShardingStrategy.entries.firstOrNull { strategy -> strategy.name.equals(name, ignoreCase = true) }
+            ?: throw InvalidUserDataException("Invalid sharding strategy '$name' (valid values: "
+                    + ShardingStrategy.entries.joinToString(", ") + ")")
+    }
+}
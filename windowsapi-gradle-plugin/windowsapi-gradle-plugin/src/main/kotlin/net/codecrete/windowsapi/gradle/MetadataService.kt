@@ -0,0 +1,50 @@
+//
+// Windows API Generator for Java
+// Copyright (c) 2025 Manuel Bleichenbacher
+// Licensed under MIT License
+// https://opensource.org/licenses/MIT
+//
+package net.codecrete.windowsapi.gradle
+
+import net.codecrete.windowsapi.metadata.Metadata
+import net.codecrete.windowsapi.winmd.MetadataBuilder
+import org.gradle.api.services.BuildService
+import org.gradle.api.services.BuildServiceParameters
+
+/**
+ * Build service providing the Windows API metadata.
+ *
+ * The metadata is loaded once and shared by all tasks of the build. Between builds,
+ * it is kept in the process-wide cache of [MetadataBuilder.loadShared] so subsequent builds
+ * in the same Gradle daemon can reuse it. If memory gets scarce, the garbage collector evicts it,
+ * and it is loaded again when needed.
+ */
+abstract class MetadataService : BuildService<BuildServiceParameters.None>, AutoCloseable {
+
+    private var metadata: Metadata? = null
+
+    /**
+     * Gets the metadata, loading it if needed.
+     *
+     * The metadata is fully loaded and can be used by several tasks concurrently.
+     */
+    @Synchronized
+    fun getMetadata(): Metadata {
+        return metadata ?: MetadataBuilder.loadShared().also { metadata = it }
+    }
+
+    /**
+     * Releases the strong reference to the metadata at the end of the build.
+     */
+    @Synchronized
+    override fun close() {
+        metadata = null
+    }
+
+    companion object {
+        /**
+         * Name of the shared build service.
+         */
+        const val NAME = "windowsApiMetadata"
+    }
+}
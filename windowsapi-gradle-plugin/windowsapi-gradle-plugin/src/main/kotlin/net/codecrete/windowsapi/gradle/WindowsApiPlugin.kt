@@ -20,6 +20,10 @@ class WindowsApiPlugin : Plugin<Project> {
     override fun apply(project: Project) {
         project.pluginManager.apply(JavaLibraryPlugin::class.java)
 
+        // shared service loading the metadata once per build
+        val metadataService = project.gradle.sharedServices
+            .registerIfAbsent(MetadataService.NAME, MetadataService::class.java) {}
+
         // for each Java source set
         project.extensions.getByType(JavaPluginExtension::class.java).sourceSets.all { sourceSet ->
 
@@ -33,6 +37,11 @@ class WindowsApiPlugin : Plugin<Project> {
                 task.description = "Generates Windows API bindings"
                 task.outputDirectory.set(outputDirectory)
                 task.basePackage.convention("")
+                task.handlesAsLong.convention(false)
+                task.shardingStrategy.convention("NONE")
+                task.shardThreshold.convention(500)
+                task.metadataService.set(metadataService)
+                task.usesService(metadataService)
             }
 
             // create a dependency of the Java compile task on the Windows API generation
@@ -6,21 +6,24 @@
 //
 package net.codecrete.windowsapi.gradle
 
-import net.codecrete.windowsapi.WindowsApiException
-import net.codecrete.windowsapi.WindowsApiRun
 import org.gradle.api.DefaultTask
-import org.gradle.api.InvalidUserDataException
 import org.gradle.api.file.DirectoryProperty
 import org.gradle.api.provider.ListProperty
 import org.gradle.api.provider.Property
 import org.gradle.api.tasks.CacheableTask
 import org.gradle.api.tasks.Input
+import org.gradle.api.tasks.Internal
 import org.gradle.api.tasks.Optional
 import org.gradle.api.tasks.OutputDirectory
 import org.gradle.api.tasks.TaskAction
+import org.gradle.workers.WorkerExecutor
+import javax.inject.Inject
 
 /**
  * Generates Windows API bindings
+ *
+ * The code is generated using the Worker API so that several projects can generate code in parallel.
+ * The metadata is provided by the shared [MetadataService] and only loaded once per build.
  */
 @CacheableTask
 abstract class WindowsApiTask : DefaultTask() {
@@ -67,6 +70,16 @@ abstract class WindowsApiTask : DefaultTask() {
     @get:Optional
     abstract val constants: ListProperty<String>
 
+    /**
+     * A list of Windows API function names to link as critical functions.
+     *
+     * Critical functions avoid the thread state transition and are only suitable for short,
+     * non-blocking functions. The names may contain the wildcard `*`.
+     */
+    @get:Input
+    @get:Optional
+    abstract val criticalFunctions: ListProperty<String>
+
     /**
      * Output directory for generated Java code
      */
@@ -85,24 +98,62 @@ abstract class WindowsApiTask : DefaultTask() {
     @get:Optional
     abstract val basePackage: Property<String>
 
+    /**
+     * If set to `true`, handles (such as `HWND` or `HANDLE`) are represented as `long`
+     * instead of `MemorySegment`. The default is `false`.
+     */
+    @get:Input
+    @get:Optional
+    abstract val handlesAsLong: Property<Boolean>
+
+    /**
+     * The strategy for splitting large `Apis` and `Constants` classes.
+     *
+     * Valid values are `NONE`, `BY_DLL`, `ALPHABETICAL` and `BY_SIZE`. The `Apis` and `Constants`
+     * classes remain as facades with the same public methods. The default is `NONE`.
+     */
+    @get:Input
+    @get:Optional
+    abstract val shardingStrategy: Property<String>
+
+    /**
+     * The number of functions or constants above which a class is split.
+     *
+     * For the strategy `BY_SIZE`, it is also the maximum number of members per class.
+     * The default is 500.
+     */
+    @get:Input
+    @get:Optional
+    abstract val shardThreshold: Property<Int>
+
+    /**
+     * The shared service providing the Windows API metadata.
+     */
+    @get:Internal
+    abstract val metadataService: Property<MetadataService>
+
+    /**
+     * The executor for running the code generation.
+     */
+    @get:Inject
+    abstract val workerExecutor: WorkerExecutor
+
     @TaskAction
     fun generateCode() {
-        val run = WindowsApiRun()
-        run.eventListener = EventLogger(logger)
-
-        run.functions.addAll(functions.get())
-        run.structs.addAll(structs.get())
-        run.enumerations.addAll(enumerations.get())
-        run.callbackFunctions.addAll(callbackFunctions.get())
-        run.comInterfaces.addAll(comInterfaces.get())
-        run.constants.addAll(constants.get())
-        run.outputDirectory = outputDirectory.get().asFile.toPath()
-        run.basePackage = basePackage.get()
-
-        try {
-            run.generateCode()
-        } catch (_: WindowsApiException) {
-            throw InvalidUserDataException("Windows API code generation failed as the arguments are invalid")
+        workerExecutor.noIsolation().submit(GenerateCodeAction::class.java) { parameters ->
+            parameters.functions.set(functions)
+            parameters.structs.set(structs)
+            parameters.enumerations.set(enumerations)
+            parameters.callbackFunctions.set(callbackFunctions)
+            parameters.comInterfaces.set(comInterfaces)
+            parameters.constants.set(constants)
+            parameters.criticalFunctions.set(criticalFunctions)
+            parameters.outputDirectory.set(outputDirectory)
+            parameters.basePackage.set(basePackage)
+            parameters.handlesAsLong.set(handlesAsLong)
+            parameters.shardingStrategy.set(shardingStrategy)
+            parameters.shardThreshold.set(shardThreshold)
+            parameters.metadataService.set(metadataService)
         }
     }
-}
\ No newline at end of file
+}
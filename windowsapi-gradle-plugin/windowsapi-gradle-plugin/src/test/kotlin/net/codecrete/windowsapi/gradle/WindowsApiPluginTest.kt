@@ -20,4 +20,11 @@ class WindowsApiPluginTest {
         assertNotNull(project.tasks.findByName("generateWindowsApi"))
         assertNotNull(project.tasks.findByName("generateTestWindowsApi"))
     }
+
+    @Test fun `plugin registers metadata service`() {
+        val project = ProjectBuilder.builder().build()
+        project.plugins.apply("net.codecrete.windows-api")
+
+        assertNotNull(project.gradle.sharedServices.registrations.findByName(MetadataService.NAME))
+    }
 }
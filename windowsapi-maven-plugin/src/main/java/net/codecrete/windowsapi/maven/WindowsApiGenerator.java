@@ -7,12 +7,16 @@
 package net.codecrete.windowsapi.maven;
 
 import net.codecrete.windowsapi.WindowsApiRun;
+import net.codecrete.windowsapi.winmd.MetadataBuilder;
+import net.codecrete.windowsapi.writer.ShardingStrategy;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Component;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.project.MavenProject;
+import org.sonatype.plexus.build.incremental.BuildContext;
 
 import java.io.File;
 import java.nio.file.Path;
@@ -29,6 +33,14 @@ import java.util.List;
  * The generated code uses the Java Foreign Functions and Memory (FFM) API
  * for native access.
  * </p>
+ * <p>
+ * If the configuration has not changed since the last run and the generated files are still
+ * present, generation is skipped without loading the metadata.
+ * </p>
+ * <p>
+ * The metadata is loaded once per JVM and shared by all executions of this plugin,
+ * e.g., by all modules of a (parallel) reactor build.
+ * </p>
  */
 @Mojo(name = "windows-api", defaultPhase = LifecyclePhase.GENERATE_SOURCES, threadSafe = true)
 public class WindowsApiGenerator extends AbstractMojo {
@@ -46,6 +58,12 @@ public class WindowsApiGenerator extends AbstractMojo {
     @Parameter(defaultValue = "${project}", required = true, readonly = true)
     MavenProject mavenProject;
 
+    /**
+     * The build context (for incremental builds in IDEs).
+     */
+    @Component
+    BuildContext buildContext;
+
     /**
      * A list of Windows API functions names to generate bindings for.
      */
@@ -82,6 +100,16 @@ public class WindowsApiGenerator extends AbstractMojo {
     @Parameter
     List<String> constants;
 
+    /**
+     * A list of Windows API function names to link as critical functions.
+     * <p>
+     * Critical functions avoid the thread state transition and are only suitable for short,
+     * non-blocking functions. The names may contain the wildcard {@code *}.
+     * </p>
+     */
+    @Parameter
+    List<String> criticalFunctions;
+
     /**
      * Location of the output directory for the generated code.
      */
@@ -108,6 +136,32 @@ public class WindowsApiGenerator extends AbstractMojo {
     @Parameter(name = "basePackage")
     String basePackage;
 
+    /**
+     * If set to {@code true}, handles (such as {@code HWND} or {@code HANDLE}) are represented
+     * as {@code long} instead of {@code MemorySegment}.
+     */
+    @Parameter(name = "handlesAsLong", defaultValue = "false")
+    boolean handlesAsLong;
+
+    /**
+     * The strategy for splitting large {@code Apis} and {@code Constants} classes.
+     * <p>
+     * Valid values are {@code NONE}, {@code BY_DLL}, {@code ALPHABETICAL} and {@code BY_SIZE}.
+     * The {@code Apis} and {@code Constants} classes remain as facades with the same public methods.
+     * </p>
+     */
+    @Parameter(name = "shardingStrategy", defaultValue = "NONE")
+    ShardingStrategy shardingStrategy;
+
+    /**
+     * The number of functions or constants above which a class is split.
+     * <p>
+     * For the strategy {@code BY_SIZE}, it is also the maximum number of members per class.
+     * </p>
+     */
+    @Parameter(name = "shardThreshold", defaultValue = "500")
+    int shardThreshold;
+
     /**
      * If set to {@code true}, adds the source directory as a source root
      * so the generated code will be compiled and included in the resulting artifact.
@@ -122,6 +176,13 @@ public class WindowsApiGenerator extends AbstractMojo {
     @Parameter(name = "addAsTestSourceRoot", defaultValue = "false")
     boolean addAsTestSourceRoot;
 
+    /**
+     * If set to {@code true}, code generation is skipped if the configuration is unchanged
+     * and the generated files from the previous run are intact.
+     */
+    @Parameter(name = "incremental", defaultValue = "true")
+    boolean incremental;
+
     public void execute() throws MojoExecutionException {
         try {
             var sourceFolder = Path.of(outputDirectory.toURI());
@@ -139,7 +200,14 @@ public class WindowsApiGenerator extends AbstractMojo {
             else if (addAsTestSourceRoot)
                 mavenProject.addTestCompileSourceRoot(sourceFolder.toString());
 
+            if (incremental && run.isUpToDate()) {
+                getLog().info("Windows API bindings are up-to-date");
+                return;
+            }
+
+            run.setMetadata(MetadataBuilder.loadShared());
             run.generateCode();
+            buildContext.refresh(sourceFolder.toFile());
 
         } catch (Exception e) {
             throw new MojoExecutionException("Failed to generate Windows API bindings", e);
@@ -162,9 +230,14 @@ public class WindowsApiGenerator extends AbstractMojo {
             run.setComInterfaces(new HashSet<>(comInterfaces));
         if (constants != null)
             run.setConstants(new HashSet<>(constants));
+        if (criticalFunctions != null)
+            run.setCriticalFunctions(new HashSet<>(criticalFunctions));
 
         run.setOutputDirectory(sourceFolder);
         run.setBasePackage(basePackage != null ? basePackage : "");
+        run.setHandlesAsLong(handlesAsLong);
+        run.setShardingStrategy(shardingStrategy != null ? shardingStrategy : ShardingStrategy.NONE);
+        run.setShardThreshold(shardThreshold);
         return run;
     }
 }